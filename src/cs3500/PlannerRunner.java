@@ -1,43 +1,141 @@
 package cs3500;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import cs3500.controller.GUIController;
+import cs3500.controller.PlannerServer;
+import cs3500.model.ConcurrentPlanner;
 import cs3500.model.ICentralSystem;
+import cs3500.model.JournaledPlanner;
 import cs3500.model.NUPlanner;
+import cs3500.model.TieredPlanner;
 import cs3500.view.MainSystemFrame;
 
 /**
  * Main class for running the program for the planner GUI.
  */
 public final class PlannerRunner {
+  private static final int SERVER_QUEUE = 64; // Requests waiting for a worker before 503s
 
   /**
-   * Main method for running the program.
+   * Main method for running the program. The first argument is the scheduling strategy. An
+   * optional second argument is a directory the planner is kept in, as a snapshot and a journal
+   * of the changes since it, so the planner is restored on the next run. An optional third
+   * argument is a memory budget in megabytes, which keeps the planner in the directory as one
+   * file per schedule instead and only the recently used schedules in memory.
+   *
+   * <p>Given "serve" and a port first, the planner is served as JSON over HTTP on that port of
+   * the loopback address instead of shown in the GUI, taking the same arguments after them. See
+   * {@link PlannerServer} for its routes.
    *
    * @param args the arguments provided
    */
   public static void main(String[] args) {
-    ICentralSystem system = new NUPlanner();
+    if (args.length > 0 && args[0].equalsIgnoreCase("serve")) {
+      serve(args);
+      return;
+    }
+    ICentralSystem system = openSystem(args, 1);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> save(system)));
     MainSystemFrame view = new MainSystemFrame(system);
 
-    Strategy.StrategyType strategyType;
     if (args.length < 1) {
       throw new IllegalArgumentException("No arguments passed");
     }
+    Strategy.StrategyType strategyType = strategyType(args[0]);
+
+    GUIController controller = new GUIController(system, view);
+    Strategy.setStrategy(controller, strategyType, system);
+    controller.setView(view);
+    controller.makeVisible();
+  }
+
+  private static void serve(String[] args) {
+    if (args.length < 3) {
+      throw new IllegalArgumentException("Serving needs a port and a strategy");
+    }
+    int port = Integer.parseInt(args[1]);
+    Strategy.StrategyType strategyType = strategyType(args[2]);
+    // The planners kept in a directory are not thread-safe, so they get one worker
+    ICentralSystem system = args.length > 3 ? openSystem(args, 3) : new ConcurrentPlanner();
+    int threads = args.length > 3 ? 1 : Runtime.getRuntime().availableProcessors();
+    try {
+      PlannerServer server = PlannerServer.start(system, Strategy.create(strategyType, system, 1),
+              new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads,
+              SERVER_QUEUE);
+      // One hook, so the planner is only saved once the workers are done changing it
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        server.close();
+        save(system);
+      }));
+      System.out.println("Serving the planner on http://localhost:" + server.port());
+    } catch (IOException ex) {
+      throw new IllegalArgumentException("Could not serve the planner on port " + port, ex);
+    }
+  }
+
+  /**
+   * Opens the planner given by the arguments from the given one on: a directory to keep it in,
+   * and a memory budget in megabytes.
+   */
+  private static ICentralSystem openSystem(String[] args, int first) {
+    if (args.length > first + 1) {
+      return openTieredPlanner(Path.of(args[first]), Long.parseLong(args[first + 1]) << 20);
+    } else if (args.length > first) {
+      return openPlanner(Path.of(args[first]));
+    } else {
+      return new NUPlanner();
+    }
+  }
 
-    switch (args[0].toLowerCase()) {
+  private static Strategy.StrategyType strategyType(String name) {
+    switch (name.toLowerCase()) {
       case "anytime":
-        strategyType = Strategy.StrategyType.ANYTIME;
-        break;
+        return Strategy.StrategyType.ANYTIME;
       case "workhours":
-        strategyType = Strategy.StrategyType.WORKHOURS;
-        break;
+        return Strategy.StrategyType.WORKHOURS;
       default:
-        throw new IllegalArgumentException("Invalid strategy type: " + args[0]);
+        throw new IllegalArgumentException("Invalid strategy type: " + name);
     }
+  }
 
-    GUIController controller = new GUIController(system, view);
-    Strategy.setStrategy(controller, strategyType, system);
-    controller.setView(view);
-    controller.makeVisible();
+  private static ICentralSystem openPlanner(Path directory) {
+    try {
+      Files.createDirectories(directory);
+      return JournaledPlanner.open(directory.resolve("planner.snapshot"),
+              directory.resolve("planner.journal"), 32, 100);
+    } catch (IOException ex) {
+      throw new IllegalArgumentException("Could not open the planner in " + directory, ex);
+    }
+  }
+
+  private static ICentralSystem openTieredPlanner(Path directory, long memoryBudget) {
+    try {
+      return TieredPlanner.open(directory, memoryBudget);
+    } catch (IOException ex) {
+      throw new IllegalArgumentException("Could not open the planner in " + directory, ex);
+    }
+  }
+
+  /**
+   * Saves a planner kept in a directory on the way out. A journaled planner folds its journal
+   * into the snapshot, so the next start replays nothing, and a tiered planner writes the
+   * schedules still in memory. Planners kept only in memory have nothing to save.
+   */
+  private static void save(ICentralSystem system) {
+    try {
+      if (system instanceof JournaledPlanner) {
+        ((JournaledPlanner) system).checkpoint();
+        ((JournaledPlanner) system).close();
+      } else if (system instanceof TieredPlanner) {
+        ((TieredPlanner) system).close();
+      }
+    } catch (IOException ex) {
+      System.err.println("Could not save the planner: " + ex.getMessage());
+    }
   }
 }
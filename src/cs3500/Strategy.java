@@ -1,7 +1,12 @@
 package cs3500;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
 import cs3500.controller.AnyTimeSchedulingStrategy;
 import cs3500.controller.Features;
+import cs3500.controller.SchedulingStrategy;
 import cs3500.controller.WorkHoursSchedulingStrategy;
 import cs3500.model.ICentralSystem;
 
@@ -9,6 +14,9 @@ import cs3500.model.ICentralSystem;
  * Factory class for creating a Planner controller with a certain strategy for scheduling events.
  */
 public class Strategy {
+  // One pool for each parallelism asked for, shared by every strategy that searches with it, so
+  // setting the strategy again does not leave another pool of threads behind
+  private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
 
   /**
    * Enum class for defining strategy types.
@@ -25,13 +33,46 @@ public class Strategy {
    * @param model the model associated with it
    */
   public static void setStrategy(Features controller, StrategyType type, ICentralSystem model) {
+    setStrategy(controller, type, model, 1);
+  }
+
+  /**
+   * Sets the strategy for the controller, searching for times across the given number of
+   * threads. Worth it for events with hundreds of invitees.
+   * @param controller the controller used
+   * @param type the type of strategy
+   * @param model the model associated with it
+   * @param parallelism the number of threads to search with, where 1 searches on the
+   *                    calling thread
+   * @throws IllegalArgumentException if the parallelism is less than 1
+   */
+  public static void setStrategy(Features controller, StrategyType type, ICentralSystem model,
+                                 int parallelism) {
+    controller.setStrategy(create(type, model, parallelism));
+  }
+
+  /**
+   * Creates a strategy of the given type, for callers that schedule without a controller.
+   * Strategies created with the same parallelism search on the same pool of threads.
+   * @param type the type of strategy
+   * @param model the model associated with it
+   * @param parallelism the number of threads to search with, where 1 searches on the
+   *                    calling thread
+   * @return the strategy
+   * @throws IllegalArgumentException if the parallelism is less than 1
+   */
+  public static SchedulingStrategy create(StrategyType type, ICentralSystem model,
+                                          int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1");
+    }
+    ForkJoinPool pool = parallelism > 1
+            ? POOLS.computeIfAbsent(parallelism, ForkJoinPool::new) : null;
     switch (type) {
       case ANYTIME:
-        controller.setStrategy(new AnyTimeSchedulingStrategy(model));
-        break;
+        return new AnyTimeSchedulingStrategy(model, pool);
       case WORKHOURS:
-        controller.setStrategy(new WorkHoursSchedulingStrategy(model));
-        break;
+        return new WorkHoursSchedulingStrategy(model, pool);
       default:
         throw new IllegalArgumentException("Unknown strategy type: " + type);
     }
@@ -1,14 +1,12 @@
 package cs3500.controller;
 
-import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.Stream;
 
-import cs3500.model.DayOfWeek;
 import cs3500.model.Event;
 import cs3500.model.ICentralSystem;
-import cs3500.model.User;
 
 /**
  * Searches for the first available time slot for all invited users starting at Sunday 00:00.
@@ -16,47 +14,57 @@ import cs3500.model.User;
 public class AnyTimeSchedulingStrategy implements SchedulingStrategy {
 
   private final ICentralSystem model;
+  private final ForkJoinPool pool; // Searches in parallel when not null
 
   /**
    * Creates the any time strategy with the model passed in.
    * @param model the associated model
    */
   public AnyTimeSchedulingStrategy(ICentralSystem model) {
+    this(model, null);
+  }
+
+  /**
+   * Creates the strategy with the model passed in, which searches across the threads of
+   * the given pool.
+   * @param model the associated model
+   * @param pool the pool used to search for a time, or null to search on the calling thread
+   */
+  public AnyTimeSchedulingStrategy(ICentralSystem model, ForkJoinPool pool) {
     this.model = model;
+    this.pool = pool;
   }
 
   @Override
   public Event findTime(int duration, List<String> users, List<String> eventInfo)
           throws IllegalArgumentException {
-    Event event;
-    for (DayOfWeek day : DayOfWeek.values()) {
-      for (int hour = 0; hour < 24; hour++) {
-        for (int minute = 0; minute < 60; minute++) {
-
-          LocalTime startTime = LocalTime.of(hour, minute);
-
-          Map<LocalTime, Integer> end = StrategyHelper.calculateEndTime(hour, minute, duration);
-          Map.Entry<LocalTime, Integer> entry = end.entrySet().iterator().next();
-
-          LocalTime endTime = entry.getKey();
-          int endDayNum = day.getValue() + entry.getValue();
-          DayOfWeek endDay = DayOfWeek.dayOf(endDayNum % 7);
-
-          User host = model.findUserById(model.currentUser());
-          List<User> userList = new ArrayList<>();
-          for (String userId : users) {
-            userList.add(model.findUserById(userId));
-          }
-
-          event = new Event(eventInfo.get(0), eventInfo.get(1),
-                  Boolean.parseBoolean(eventInfo.get(2)), startTime, endTime,
-                  day, endDay, host, userList);
-          if (model.scheduleEvent(event, users)) {
-            return event;
-          }
-        }
-      }
+    // Any minute of the week can be a start time
+    int start = StrategyHelper.findStart(model, users,
+            new int[]{0, Availability.MINUTES_PER_WEEK - 1}, duration, pool);
+    if (start < 0) {
+      throw new IllegalArgumentException("Could not find an open block of time");
     }
-    throw new IllegalArgumentException("Could not find an open block of time");
+    return StrategyHelper.createEvent(model, eventInfo, users, start, duration);
+  }
+
+  @Override
+  public Stream<Event> findTimes(int duration, List<String> users, List<String> eventInfo)
+          throws IllegalArgumentException {
+    return StrategyHelper.findTimes(model, eventInfo, users,
+            new int[]{0, Availability.MINUTES_PER_WEEK - 1}, duration);
+  }
+
+  @Override
+  public List<Event> findBestTimes(int duration, List<String> users, List<String> eventInfo,
+                                   int count, IntToDoubleFunction score)
+          throws IllegalArgumentException {
+    return StrategyHelper.findBestTimes(model, eventInfo, users,
+            new int[]{0, Availability.MINUTES_PER_WEEK - 1}, duration, count, score);
+  }
+
+  @Override
+  public List<SchedulingResult> scheduleAll(List<SchedulingRequest> requests, BatchOrder order) {
+    return new BatchScheduler(model,
+        duration -> new int[]{0, Availability.MINUTES_PER_WEEK - 1}).schedule(requests, order);
   }
 }
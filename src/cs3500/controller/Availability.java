@@ -0,0 +1,507 @@
+package cs3500.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import cs3500.model.Event;
+import cs3500.model.User;
+
+/**
+ * The combined busy time of a group of users over one week, stored as sorted, non-overlapping
+ * minute-of-week intervals. Used by the scheduling strategies to jump from one free gap to the
+ * next instead of trying every start minute of the week.
+ */
+public final class Availability {
+  public static final int MINUTES_PER_DAY = 24 * 60;
+  public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+  // The most users whose schedules are combined on one thread before the work is split
+  private static final int USERS_PER_TASK = 32;
+
+  private final int[] starts; // Start of each busy interval, in increasing order
+  private final int[] ends; // End of each busy interval, also in increasing order
+
+  private Availability(int[] starts, int[] ends) {
+    this.starts = starts;
+    this.ends = ends;
+  }
+
+  /**
+   * Combines the schedules of the given users into their shared busy time.
+   *
+   * @param users the users whose schedules are combined
+   * @return the busy time of the users
+   * @throws IllegalArgumentException if any of the users is null
+   */
+  public static Availability of(Collection<User> users) throws IllegalArgumentException {
+    List<int[]> segments = new ArrayList<>();
+    for (User user : users) {
+      if (user == null) {
+        throw new IllegalArgumentException("User is not in the system");
+      }
+      for (Event event : user.userSchedule()) {
+        addSegments(segments, event);
+      }
+    }
+    return merge(segments);
+  }
+
+  /**
+   * Combines the schedules of the given users into their shared busy time, splitting the users
+   * across the threads of the given pool.
+   *
+   * @param users the users whose schedules are combined
+   * @param pool  the pool that combines the schedules
+   * @return the busy time of the users
+   * @throws IllegalArgumentException if any of the users is null
+   */
+  public static Availability of(List<User> users, ForkJoinPool pool)
+          throws IllegalArgumentException {
+    return pool.invoke(new CombineTask(users));
+  }
+
+  /**
+   * Task that combines the busy time of half of its users on each side of a fork.
+   */
+  private static final class CombineTask extends RecursiveTask<Availability> {
+    private static final long serialVersionUID = 1L;
+
+    private final List<User> users;
+
+    private CombineTask(List<User> users) {
+      this.users = users;
+    }
+
+    @Override
+    protected Availability compute() {
+      if (users.size() <= USERS_PER_TASK) {
+        return of(users);
+      }
+      int middle = users.size() / 2;
+      CombineTask left = new CombineTask(users.subList(0, middle));
+      left.fork();
+      Availability right = new CombineTask(users.subList(middle, users.size())).compute();
+      return left.join().union(right);
+    }
+  }
+
+  /**
+   * Combines this busy time with another, in time linear in the number of intervals.
+   *
+   * @param other the other busy time
+   * @return the busy time of both
+   */
+  public Availability union(Availability other) {
+    List<int[]> segments = new ArrayList<>(starts.length + other.starts.length);
+    int mine = 0;
+    int theirs = 0;
+    // Both lists are already sorted, so interleave them instead of sorting again
+    while (mine < starts.length || theirs < other.starts.length) {
+      if (theirs >= other.starts.length
+              || (mine < starts.length && starts[mine] <= other.starts[theirs])) {
+        segments.add(new int[]{starts[mine], ends[mine]});
+        mine++;
+      } else {
+        segments.add(new int[]{other.starts[theirs], other.ends[theirs]});
+        theirs++;
+      }
+    }
+    return merge(segments);
+  }
+
+  /**
+   * Combines many busy times, merging them in pairs so each interval is copied about log k
+   * times for k busy times.
+   *
+   * @param all the busy times being combined
+   * @return the busy time of all of them
+   */
+  public static Availability unionAll(List<Availability> all) {
+    List<Availability> level = new ArrayList<>(all);
+    if (level.isEmpty()) {
+      return merge(new ArrayList<>());
+    }
+    while (level.size() > 1) {
+      List<Availability> next = new ArrayList<>();
+      for (int index = 0; index + 1 < level.size(); index += 2) {
+        next.add(level.get(index).union(level.get(index + 1)));
+      }
+      if (level.size() % 2 == 1) {
+        next.add(level.get(level.size() - 1));
+      }
+      level = next;
+    }
+    return level.get(0);
+  }
+
+  /**
+   * Adds the time taken up by an event to this busy time.
+   *
+   * @param event the event being added
+   * @return the busy time including the event
+   */
+  public Availability plus(Event event) {
+    List<int[]> segments = new ArrayList<>();
+    addSegments(segments, event);
+    return union(merge(segments));
+  }
+
+  /**
+   * Adds the half-open minute-of-week ranges an event occupies to the list of segments.
+   *
+   * @param segments the list being added to
+   * @param event    the event being split into segments
+   */
+  static void addSegments(List<int[]> segments, Event event) {
+    if (event.endsNextWeek()) {
+      segments.add(new int[]{event.startMinute(), MINUTES_PER_WEEK});
+      segments.add(new int[]{0, event.endMinute()});
+    } else if (event.startMinute() < event.endMinute()) {
+      segments.add(new int[]{event.startMinute(), event.endMinute()});
+    }
+  }
+
+  /**
+   * Sorts and merges overlapping or touching segments into busy time.
+   *
+   * @param segments the segments being merged
+   * @return the merged busy time
+   */
+  static Availability merge(List<int[]> segments) {
+    segments.sort((first, second) -> Integer.compare(first[0], second[0]));
+    int[] starts = new int[segments.size()];
+    int[] ends = new int[segments.size()];
+    int count = 0;
+    for (int[] segment : segments) {
+      if (count > 0 && segment[0] <= ends[count - 1]) {
+        ends[count - 1] = Math.max(ends[count - 1], segment[1]);
+      } else {
+        starts[count] = segment[0];
+        ends[count] = segment[1];
+        count++;
+      }
+    }
+    return new Availability(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+  }
+
+  /**
+   * Adds one to the changes array at the first start minute of each range of starts that an
+   * event of the given duration cannot use because of this busy time, and subtracts one at the
+   * minute after the range. Summing the array from the start of the week then gives, for every
+   * start minute, how many of the busy times added to it block that start.
+   *
+   * @param duration the length of the event in minutes, more than zero and less than a week
+   * @param changes  the array of size one more than the minutes in a week being added to
+   */
+  void addBlockedStarts(int duration, int[] changes) {
+    List<int[]> blocked = new ArrayList<>();
+    for (int index = 0; index < starts.length; index++) {
+      // An event starting in [start - duration + 1, end) overlaps the busy interval
+      int low = starts[index] - duration + 1;
+      int high = ends[index];
+      if (high - low >= MINUTES_PER_WEEK) {
+        blocked.add(new int[]{0, MINUTES_PER_WEEK});
+      } else if (low < 0) {
+        // Events starting at the end of the week wrap around into the interval
+        blocked.add(new int[]{0, high});
+        blocked.add(new int[]{low + MINUTES_PER_WEEK, MINUTES_PER_WEEK});
+      } else {
+        blocked.add(new int[]{low, high});
+      }
+    }
+    // Merge so a start blocked by two intervals is only counted once
+    Availability merged = merge(blocked);
+    for (int index = 0; index < merged.starts.length; index++) {
+      changes[merged.starts[index]]++;
+      changes[merged.ends[index]]--;
+    }
+  }
+
+  /**
+   * Checks if an event of the given duration starting at the given minute of the week would
+   * overlap any busy time. The end wraps into the next week the same way an Event does.
+   *
+   * @param start    the minute of the week the event starts
+   * @param duration the length of the event in minutes
+   * @return true if the event fits in the free time, false otherwise
+   */
+  public boolean isFree(int start, int duration) {
+    int end = (int) ((start + (long) duration) % MINUTES_PER_WEEK);
+    if (end == start) {
+      return true; // A zero-minute event never overlaps anything
+    }
+    if (end > start) {
+      return conflict(start, end) < 0;
+    }
+    return conflict(start, MINUTES_PER_WEEK) < 0 && conflict(0, end) < 0;
+  }
+
+  /**
+   * Finds the earliest start minute, trying the given windows in order, at which an event of
+   * the given duration fits in the free time. This is the same start that trying every minute
+   * of every window in order would find, but whole busy intervals are skipped at a time.
+   *
+   * @param windows  the inclusive ranges of allowed start minutes as low, high pairs, ordered
+   *                 from earliest to latest
+   * @param duration the length of the event in minutes
+   * @return the earliest start minute, or -1 if the event fits nowhere
+   */
+  public int findStart(int[] windows, int duration) {
+    return nextStart(windows, duration, 0, MINUTES_PER_WEEK);
+  }
+
+  /**
+   * Counts the start minutes in the given windows at which an event of the given duration fits
+   * in the free time. Fewer starts means the event is harder to place.
+   *
+   * @param windows  the inclusive ranges of allowed start minutes as low, high pairs, ordered
+   *                 from earliest to latest
+   * @param duration the length of the event in minutes
+   * @return the number of start minutes that fit
+   */
+  public int countStarts(int[] windows, int duration) {
+    int count = 0;
+    int start = nextStart(windows, duration, 0, MINUTES_PER_WEEK);
+    while (start >= 0) {
+      count++;
+      start = nextStart(windows, duration, start + 1, MINUTES_PER_WEEK);
+    }
+    return count;
+  }
+
+  /**
+   * Lists every start minute in the given windows at which an event of the given duration fits
+   * in the free time, from earliest to latest. Each start is only searched for once the stream
+   * asks for it, and the stream can be split across threads by calling parallel on it.
+   *
+   * @param windows  the inclusive ranges of allowed start minutes as low, high pairs, ordered
+   *                 from earliest to latest
+   * @param duration the length of the event in minutes
+   * @return the stream of open start minutes
+   */
+  public IntStream starts(int[] windows, int duration) {
+    return StreamSupport.intStream(new StartSpliterator(windows, duration, 0, MINUTES_PER_WEEK),
+            false);
+  }
+
+  /**
+   * Finds the open start minutes in the given windows with the highest scores. Only the best
+   * starts seen so far are kept while searching, so the open starts are never all held at once.
+   *
+   * @param windows  the inclusive ranges of allowed start minutes as low, high pairs, ordered
+   *                 from earliest to latest
+   * @param duration the length of the event in minutes
+   * @param count    the most starts to return
+   * @param score    the score of each start minute, where higher is better
+   * @return the best start minutes from highest to lowest score, with ties broken by the
+   *         earlier start
+   * @throws IllegalArgumentException if the count is negative
+   */
+  public int[] bestStarts(int[] windows, int duration, int count, IntToDoubleFunction score)
+          throws IllegalArgumentException {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative");
+    }
+    // Worst kept start at the head, so it is the one replaced by a better start
+    Comparator<double[]> worstFirst = Comparator.<double[]>comparingDouble(scored -> scored[0])
+            .thenComparing(scored -> -scored[1]);
+    PriorityQueue<double[]> best = new PriorityQueue<>(Math.max(1, count), worstFirst);
+    int start = nextStart(windows, duration, 0, MINUTES_PER_WEEK);
+    while (start >= 0 && count > 0) {
+      double[] scored = new double[]{score.applyAsDouble(start), start};
+      if (best.size() < count) {
+        best.add(scored);
+      } else if (worstFirst.compare(scored, best.peek()) > 0) {
+        best.poll();
+        best.add(scored);
+      }
+      start = nextStart(windows, duration, start + 1, MINUTES_PER_WEEK);
+    }
+    int[] starts = new int[best.size()];
+    for (int index = starts.length - 1; index >= 0; index--) {
+      starts[index] = (int) best.poll()[1];
+    }
+    return starts;
+  }
+
+  /**
+   * Finds the earliest start minute in the range [from, to) that lies in the given windows and
+   * at which an event of the given duration fits in the free time. Whole busy intervals are
+   * skipped at a time instead of trying every minute.
+   *
+   * @param windows  the inclusive ranges of allowed start minutes as low, high pairs, ordered
+   *                 from earliest to latest
+   * @param duration the length of the event in minutes
+   * @param from     the earliest start minute searched
+   * @param to       the minute after the latest start minute searched
+   * @return the earliest start minute, or -1 if the event fits nowhere in the range
+   */
+  private int nextStart(int[] windows, int duration, int from, int to) {
+    for (int window = 0; window < windows.length; window += 2) {
+      int start = Math.max(windows[window], from);
+      int last = Math.min(windows[window + 1], to - 1);
+      while (start <= last) {
+        if (duration <= 0 || duration >= MINUTES_PER_WEEK) {
+          // The end wraps unpredictably, so check each minute like the original search did
+          if (isFree(start, duration)) {
+            return start;
+          }
+          start++;
+          continue;
+        }
+        int end = start + duration;
+        int blocking = conflict(start, Math.min(end, MINUTES_PER_WEEK));
+        if (blocking >= 0) {
+          // Every start before the end of the blocking interval would also overlap it
+          start = ends[blocking];
+        } else if (end > MINUTES_PER_WEEK && conflict(0, end - MINUTES_PER_WEEK) >= 0) {
+          // The part wrapping into next week only grows with later starts, so nothing later fits
+          return -1;
+        } else {
+          return start;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Spliterator over the open start minutes in a range of the week, which searches for the next
+   * start as each one is pulled and splits by halving the range.
+   */
+  private final class StartSpliterator implements Spliterator.OfInt {
+    // Ranges shorter than this are searched on one thread
+    private static final int MIN_SPLIT = 60;
+
+    private final int[] windows;
+    private final int duration;
+    private int from; // The earliest start not yet searched
+    private final int to; // The minute after the latest start this spliterator covers
+
+    private StartSpliterator(int[] windows, int duration, int from, int to) {
+      this.windows = windows;
+      this.duration = duration;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+      if (from >= to) {
+        return false;
+      }
+      int start = nextStart(windows, duration, from, to);
+      if (start < 0) {
+        from = to;
+        return false;
+      }
+      from = start + 1;
+      action.accept(start);
+      return true;
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+      if (to - from < MIN_SPLIT * 2) {
+        return null;
+      }
+      int middle = (from + to) >>> 1;
+      // The earlier half is handed off so the encounter order stays by start time
+      StartSpliterator earlier = new StartSpliterator(windows, duration, from, middle);
+      from = middle;
+      return earlier;
+    }
+
+    @Override
+    public long estimateSize() {
+      return Math.max(0, to - from);
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super Integer> getComparator() {
+      return null; // Sorted by natural order
+    }
+  }
+
+  /**
+   * Finds the same start as {@link #findStart(int[], int)}, but searches each day of the
+   * windows on its own thread of the given pool and keeps the earliest result.
+   *
+   * @param windows  the inclusive ranges of allowed start minutes as low, high pairs, ordered
+   *                 from earliest to latest
+   * @param duration the length of the event in minutes
+   * @param pool     the pool that searches the days
+   * @return the earliest start minute, or -1 if the event fits nowhere
+   */
+  public int findStart(int[] windows, int duration, ForkJoinPool pool) {
+    List<Callable<Integer>> days = new ArrayList<>();
+    for (int window = 0; window < windows.length; window += 2) {
+      int low = windows[window];
+      while (low <= windows[window + 1]) {
+        // Cut the window at the end of the day the search is in
+        int endOfDay = (low / MINUTES_PER_DAY + 1) * MINUTES_PER_DAY - 1;
+        int high = Math.min(windows[window + 1], endOfDay);
+        int[] day = new int[]{low, high};
+        days.add(() -> findStart(day, duration));
+        low = high + 1;
+      }
+    }
+    try {
+      // The days are in order, so the first one with an open slot has the earliest slot
+      for (Future<Integer> day : pool.invokeAll(days)) {
+        if (day.get() >= 0) {
+          return day.get();
+        }
+      }
+      return -1;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Search for an open slot was interrupted");
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Search for an open slot failed", ex.getCause());
+    }
+  }
+
+  /**
+   * Finds a busy interval overlapping the half-open range [start, end).
+   *
+   * @param start the first minute of the range
+   * @param end   the minute after the last minute of the range
+   * @return the index of the first busy interval overlapping the range, or -1 if there is none
+   */
+  private int conflict(int start, int end) {
+    // Find the first interval ending after the start of the range
+    int low = 0;
+    int high = ends.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ends[middle] <= start) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    if (low < starts.length && starts[low] < end) {
+      return low;
+    }
+    return -1;
+  }
+}
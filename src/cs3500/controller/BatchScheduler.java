@@ -0,0 +1,136 @@
+package cs3500.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import cs3500.model.Event;
+import cs3500.model.ICentralSystem;
+import cs3500.model.User;
+
+/**
+ * Places a batch of scheduling requests in the model one after another. The busy time of each
+ * user is built once for the whole batch and updated in place as every event is added, instead
+ * of being rebuilt from the schedules for every request.
+ */
+final class BatchScheduler {
+  private final ICentralSystem model;
+  private final IntFunction<int[]> windows; // The allowed start windows for a duration
+  private final Map<String, Availability> busy = new HashMap<>(); // Busy time by user ID
+
+  /**
+   * Creates a scheduler for one batch.
+   *
+   * @param model   the model the events are added to
+   * @param windows gives the allowed start windows for a duration, throwing an
+   *                IllegalArgumentException if the duration is not allowed
+   */
+  BatchScheduler(ICentralSystem model, IntFunction<int[]> windows) {
+    this.model = model;
+    this.windows = windows;
+  }
+
+  /**
+   * Places every request in the given order, hosted by the current user of the model.
+   *
+   * @param requests the requests to place
+   * @param order    the order to place the requests in
+   * @return the result of each request, in the same order as the requests
+   */
+  List<SchedulingResult> schedule(List<SchedulingRequest> requests,
+                                  SchedulingStrategy.BatchOrder order) {
+    SchedulingResult[] results = new SchedulingResult[requests.size()];
+    for (int index : order(requests, order)) {
+      results[index] = place(requests.get(index));
+    }
+    return Arrays.asList(results);
+  }
+
+  private List<Integer> order(List<SchedulingRequest> requests,
+                              SchedulingStrategy.BatchOrder order) {
+    List<Integer> indexes = new ArrayList<>();
+    for (int index = 0; index < requests.size(); index++) {
+      indexes.add(index);
+    }
+    switch (order) {
+      case IN_ORDER:
+        break;
+      case LONGEST_FIRST:
+        indexes.sort(Comparator.comparingInt(index -> -requests.get(index).duration()));
+        break;
+      case MOST_CONSTRAINED_FIRST:
+        // Requests with the fewest open start times go first, before others take those times
+        int[] starts = new int[requests.size()];
+        for (int index : indexes) {
+          starts[index] = countStarts(requests.get(index));
+        }
+        indexes.sort(Comparator.comparingInt(index -> starts[index]));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown batch order: " + order);
+    }
+    return indexes;
+  }
+
+  private int countStarts(SchedulingRequest request) {
+    try {
+      return combined(request).countStarts(windows.apply(request.duration()),
+              request.duration());
+    } catch (IllegalArgumentException ex) {
+      return -1; // Fails right away when placed, so the order does not matter
+    }
+  }
+
+  private SchedulingResult place(SchedulingRequest request) {
+    Event event;
+    try {
+      int start = combined(request).findStart(windows.apply(request.duration()),
+              request.duration());
+      if (start < 0) {
+        return SchedulingResult.failed(request, "Could not find an open block of time");
+      }
+      event = StrategyHelper.createEvent(model, request.eventInfo(), request.users(), start,
+              request.duration());
+      model.addEvent(event);
+    } catch (IllegalArgumentException ex) {
+      return SchedulingResult.failed(request, ex.getMessage());
+    }
+    // Commit the event's time to everyone attending
+    for (String userId : participantIds(request)) {
+      busy.put(userId, busyTime(userId).plus(event));
+    }
+    return SchedulingResult.placed(request, event);
+  }
+
+  private Availability combined(SchedulingRequest request) {
+    List<Availability> all = new ArrayList<>();
+    for (String userId : participantIds(request)) {
+      all.add(busyTime(userId));
+    }
+    return Availability.unionAll(all);
+  }
+
+  private List<String> participantIds(SchedulingRequest request) {
+    List<String> ids = new ArrayList<>();
+    ids.add(model.currentUser());
+    ids.addAll(request.users());
+    return ids;
+  }
+
+  private Availability busyTime(String userId) {
+    Availability userBusy = busy.get(userId);
+    if (userBusy == null) {
+      User user = model.findUserById(userId);
+      if (user == null) {
+        throw new IllegalArgumentException("User is not in the system: " + userId);
+      }
+      userBusy = Availability.of(List.of(user));
+      busy.put(userId, userBusy);
+    }
+    return userBusy;
+  }
+}
@@ -0,0 +1,63 @@
+package cs3500.controller;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outcome of a bulk export: the size of each file written and how long it took, and why
+ * any other files could not be written.
+ */
+public final class ExportSummary {
+  private final Map<String, Long> bytesWritten;
+  private final Map<String, Duration> writeTimes;
+  private final Map<String, String> failures;
+
+  ExportSummary(Map<String, Long> bytesWritten, Map<String, Duration> writeTimes,
+                Map<String, String> failures) {
+    this.bytesWritten = Collections.unmodifiableMap(new LinkedHashMap<>(bytesWritten));
+    this.writeTimes = Collections.unmodifiableMap(new LinkedHashMap<>(writeTimes));
+    this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+  }
+
+  /**
+   * Returns the size of each file that was written.
+   *
+   * @return the number of bytes keyed by the file name, in the order of the users
+   */
+  public Map<String, Long> bytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * Returns how long each file that was written took to write.
+   *
+   * @return the time keyed by the file name, in the order of the users
+   */
+  public Map<String, Duration> writeTimes() {
+    return writeTimes;
+  }
+
+  /**
+   * Returns the total size of the files that were written.
+   *
+   * @return the number of bytes
+   */
+  public long totalBytes() {
+    long total = 0;
+    for (long bytes : bytesWritten.values()) {
+      total += bytes;
+    }
+    return total;
+  }
+
+  /**
+   * Returns the files that could not be written.
+   *
+   * @return the reason each file failed keyed by the file name, in the order of the users
+   */
+  public Map<String, String> failures() {
+    return failures;
+  }
+}
@@ -85,4 +85,12 @@ public interface Features {
    * @throws IllegalStateException if there is an error in reading or parsing the file
    */
   void uploadSchedule(String filePath) throws IllegalStateException;
+
+  /**
+   * Reads every schedule XML file in a directory, parsing the files in parallel and adding
+   * them to the model one at a time in order of file name.
+   *
+   * @param directory the directory holding the schedule files
+   */
+  void uploadDirectory(File directory);
 }
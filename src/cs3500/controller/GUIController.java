@@ -8,6 +8,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
 
 import cs3500.model.DayOfWeek;
 import cs3500.model.Event;
@@ -27,6 +30,7 @@ public class GUIController implements Features {
   private final ICentralSystem model;
   private IMainSystemFrame view;
   private SchedulingStrategy strategy;
+  private final ScheduleExporter exporter; // Remembers what was saved, to skip unchanged users
 
   /**
    * Creates a controller that takes in a mutable model and a view as parameters.
@@ -36,6 +40,7 @@ public class GUIController implements Features {
   public GUIController(ICentralSystem model, IMainSystemFrame view) {
     this.model = Objects.requireNonNull(model);
     this.view = Objects.requireNonNull(view);
+    this.exporter = new ScheduleExporter(model, Runtime.getRuntime().availableProcessors());
   }
 
   @Override
@@ -146,13 +151,10 @@ public class GUIController implements Features {
 
   @Override
   public void saveSchedule(File selectedDir) throws ScheduleWriteException {
-    try {
-      for (String userId : model.findAllUsers()) {
-        File fullFilePath = new File(selectedDir, userId + ".xml");
-        FileOperations.saveSchedule(model, userId, fullFilePath.getAbsolutePath());
-      }
-    } catch (ScheduleWriteException ex) {
-      view.errorMessage(ex.getMessage());
+    // Writes the changed users' files in parallel without changing the selected user
+    ExportSummary summary = exporter.exportChanged(selectedDir);
+    if (!summary.failures().isEmpty()) {
+      view.errorMessage(summary.failures().values().iterator().next());
     }
   }
 
@@ -165,4 +167,48 @@ public class GUIController implements Features {
       view.errorMessage(ex.getMessage());
     }
   }
+
+  /**
+   * Imports a folder of schedules on a background thread, so the GUI keeps responding and shows
+   * how far along the import is. The users are updated and any failures shown once it is done.
+   *
+   * @param directory the directory holding the schedule files
+   */
+  @Override
+  public void uploadDirectory(File directory) {
+    ScheduleImporter importer = new ScheduleImporter(model,
+            Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors() * 4);
+    new SwingWorker<ImportSummary, int[]>() {
+      @Override
+      protected ImportSummary doInBackground() {
+        return importer.importDirectory(directory,
+            (filesDone, totalFiles) -> publish(new int[]{filesDone, totalFiles}));
+      }
+
+      @Override
+      protected void process(List<int[]> updates) {
+        // Updates arrive in batches, and only the latest one needs to be shown
+        int[] latest = updates.get(updates.size() - 1);
+        view.importProgress(latest[0], latest[1]);
+      }
+
+      @Override
+      protected void done() {
+        try {
+          ImportSummary summary = get();
+          view.updateUsers();
+          if (!summary.failures().isEmpty()) {
+            view.errorMessage("Could not import "
+                    + String.join(", ", summary.failures().keySet()));
+          }
+        } catch (ExecutionException ex) {
+          view.updateUsers(); // Files committed before the import stopped are kept
+          view.errorMessage(ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }.execute();
+  }
 }
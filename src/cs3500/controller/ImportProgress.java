@@ -0,0 +1,16 @@
+package cs3500.controller;
+
+/**
+ * Listener told each time a bulk import finishes committing a file.
+ */
+@FunctionalInterface
+public interface ImportProgress {
+
+  /**
+   * Reports how far along a bulk import is.
+   *
+   * @param filesDone  the number of files committed or skipped so far
+   * @param totalFiles the number of files being imported
+   */
+  void update(int filesDone, int totalFiles);
+}
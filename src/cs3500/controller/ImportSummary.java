@@ -0,0 +1,36 @@
+package cs3500.controller;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outcome of a bulk import: how many files were imported and why the others were not.
+ */
+public final class ImportSummary {
+  private final int imported;
+  private final Map<String, String> failures;
+
+  ImportSummary(int imported, Map<String, String> failures) {
+    this.imported = imported;
+    this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+  }
+
+  /**
+   * Returns the number of files whose events were all added.
+   *
+   * @return the number of imported files
+   */
+  public int imported() {
+    return imported;
+  }
+
+  /**
+   * Returns the files that could not be fully imported.
+   *
+   * @return the reason each file failed keyed by the file name, in the order of the files
+   */
+  public Map<String, String> failures() {
+    return failures;
+  }
+}
@@ -0,0 +1,297 @@
+package cs3500.controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the small subset of JSON the planner server needs. Objects are read as
+ * ordered maps, arrays as lists, whole numbers as longs, other numbers as doubles, and the
+ * literals as booleans or null.
+ */
+final class Json {
+  private static final int MAX_DEPTH = 64; // Deeper nesting is refused rather than recursed into
+
+  private final String text;
+  private int position;
+  private int depth;
+
+  private Json(String text) {
+    this.text = text;
+  }
+
+  /**
+   * Reads a JSON value that takes up the whole text.
+   *
+   * @param text the JSON being read
+   * @return the value
+   * @throws IllegalArgumentException if the text is not a single JSON value
+   */
+  static Object parse(String text) throws IllegalArgumentException {
+    Json json = new Json(text);
+    Object value = json.value();
+    json.skipSpace();
+    if (json.position != text.length()) {
+      throw json.error("Unexpected text after the value");
+    }
+    return value;
+  }
+
+  /**
+   * Writes a value as JSON. Maps are written as objects with their keys as strings, other
+   * collections as arrays, and anything that is not a number, boolean, or null as a string.
+   *
+   * @param value the value being written
+   * @return the JSON
+   */
+  static String write(Object value) {
+    StringBuilder out = new StringBuilder();
+    write(value, out);
+    return out.toString();
+  }
+
+  private static void write(Object value, StringBuilder out) {
+    if (value == null || value instanceof Boolean || value instanceof Number) {
+      out.append(value);
+    } else if (value instanceof Map) {
+      out.append('{');
+      boolean first = true;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!first) {
+          out.append(',');
+        }
+        first = false;
+        writeString(String.valueOf(entry.getKey()), out);
+        out.append(':');
+        write(entry.getValue(), out);
+      }
+      out.append('}');
+    } else if (value instanceof Collection) {
+      out.append('[');
+      boolean first = true;
+      for (Object element : (Collection<?>) value) {
+        if (!first) {
+          out.append(',');
+        }
+        first = false;
+        write(element, out);
+      }
+      out.append(']');
+    } else {
+      writeString(value.toString(), out);
+    }
+  }
+
+  private static void writeString(String value, StringBuilder out) {
+    out.append('"');
+    for (int index = 0; index < value.length(); index++) {
+      char c = value.charAt(index);
+      switch (c) {
+        case '"':
+          out.append("\\\"");
+          break;
+        case '\\':
+          out.append("\\\\");
+          break;
+        case '\n':
+          out.append("\\n");
+          break;
+        case '\r':
+          out.append("\\r");
+          break;
+        case '\t':
+          out.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            out.append(String.format("\\u%04x", (int) c));
+          } else {
+            out.append(c);
+          }
+      }
+    }
+    out.append('"');
+  }
+
+  private Object value() {
+    skipSpace();
+    if (position >= text.length()) {
+      throw error("Expected a value");
+    }
+    char c = text.charAt(position);
+    switch (c) {
+      case '{':
+      case '[':
+        if (++depth > MAX_DEPTH) {
+          throw error("Too deeply nested");
+        }
+        Object nested = c == '{' ? object() : array();
+        depth--;
+        return nested;
+      case '"':
+        return string();
+      case 't':
+        return literal("true", Boolean.TRUE);
+      case 'f':
+        return literal("false", Boolean.FALSE);
+      case 'n':
+        return literal("null", null);
+      default:
+        return number();
+    }
+  }
+
+  private Map<String, Object> object() {
+    Map<String, Object> object = new LinkedHashMap<>();
+    position++; // The opening brace
+    skipSpace();
+    if (peek('}')) {
+      position++;
+      return object;
+    }
+    while (true) {
+      skipSpace();
+      if (!peek('"')) {
+        throw error("Expected a key");
+      }
+      String key = string();
+      skipSpace();
+      expect(':');
+      object.put(key, value());
+      skipSpace();
+      if (peek(',')) {
+        position++;
+      } else {
+        expect('}');
+        return object;
+      }
+    }
+  }
+
+  private List<Object> array() {
+    List<Object> array = new ArrayList<>();
+    position++; // The opening bracket
+    skipSpace();
+    if (peek(']')) {
+      position++;
+      return array;
+    }
+    while (true) {
+      array.add(value());
+      skipSpace();
+      if (peek(',')) {
+        position++;
+      } else {
+        expect(']');
+        return array;
+      }
+    }
+  }
+
+  private String string() {
+    StringBuilder out = new StringBuilder();
+    position++; // The opening quote
+    while (position < text.length()) {
+      char c = text.charAt(position++);
+      if (c == '"') {
+        return out.toString();
+      }
+      if (c != '\\') {
+        out.append(c);
+        continue;
+      }
+      if (position >= text.length()) {
+        break;
+      }
+      char escaped = text.charAt(position++);
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          out.append(escaped);
+          break;
+        case 'b':
+          out.append('\b');
+          break;
+        case 'f':
+          out.append('\f');
+          break;
+        case 'n':
+          out.append('\n');
+          break;
+        case 'r':
+          out.append('\r');
+          break;
+        case 't':
+          out.append('\t');
+          break;
+        case 'u':
+          if (position + 4 > text.length()) {
+            throw error("Incomplete escape");
+          }
+          try {
+            out.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+          } catch (NumberFormatException ex) {
+            throw error("Invalid escape");
+          }
+          position += 4;
+          break;
+        default:
+          throw error("Invalid escape");
+      }
+    }
+    throw error("Unterminated string");
+  }
+
+  private Object literal(String word, Object value) {
+    if (!text.startsWith(word, position)) {
+      throw error("Expected " + word);
+    }
+    position += word.length();
+    return value;
+  }
+
+  private Number number() {
+    int start = position;
+    boolean whole = true;
+    while (position < text.length()) {
+      char c = text.charAt(position);
+      if (c == '.' || c == 'e' || c == 'E') {
+        whole = false;
+      } else if (!(c == '-' || c == '+' || Character.isDigit(c))) {
+        break;
+      }
+      position++;
+    }
+    String number = text.substring(start, position);
+    try {
+      return whole ? (Number) Long.parseLong(number) : (Number) Double.parseDouble(number);
+    } catch (NumberFormatException ex) {
+      position = start;
+      throw error("Expected a value");
+    }
+  }
+
+  private void skipSpace() {
+    while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+      position++;
+    }
+  }
+
+  private boolean peek(char c) {
+    return position < text.length() && text.charAt(position) == c;
+  }
+
+  private void expect(char c) {
+    if (!peek(c)) {
+      throw error("Expected '" + c + "'");
+    }
+    position++;
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(message + " at character " + position);
+  }
+}
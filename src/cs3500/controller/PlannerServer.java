@@ -0,0 +1,627 @@
+package cs3500.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import cs3500.model.DayOfWeek;
+import cs3500.model.Event;
+import cs3500.model.ICentralSystem;
+import cs3500.model.PlannerCommand;
+import cs3500.model.User;
+
+/**
+ * A local HTTP service that gives other programs the planner's operations as JSON, without the
+ * GUI. Every request and response body is a JSON object or array, and every error is answered
+ * with a status and a body of the form {"error": message}.
+ *
+ * <p>Events are written as {"name", "startDay", "startTime", "endDay", "endTime", "location",
+ * "online", "host", "invitees"}, with days such as "Monday", times as "HHmm" strings, and
+ * invitees as an array of user IDs. The routes are:
+ * <ul>
+ *   <li>GET /users lists the user IDs, and POST /users with {"id"} adds a user.</li>
+ *   <li>GET /users/{id}/schedule lists a user's events, and GET /users/{id}/events?day=&amp;time=
+ *   lists the ones happening at a time.</li>
+ *   <li>GET /schedules lists every user's events, each once.</li>
+ *   <li>GET /events/{name} finds an event. POST /events with an event creates it, PUT
+ *   /events/{name} with every field but the host, plus an optional "toggle" array of user IDs
+ *   whose invitations flip, modifies it, and DELETE /events/{name}?user= removes a user from
+ *   it, or removes it entirely if the user is the host.</li>
+ *   <li>POST /batch with an array of commands applies them all or none. Each command is an
+ *   event to create with "op": "create", the body of a modify with "op": "modify" and the
+ *   "event" it changes, or "op": "remove" with the "event" and "user".</li>
+ *   <li>POST /availability with an event answers {"free"} for whether everyone attending it is
+ *   free at its time.</li>
+ *   <li>POST /strategy/time and /strategy/times with {"host", "duration", "invitees", "name",
+ *   "location", "online"}, plus a "count" for the latter, find the first open slot or the
+ *   first few with the server's strategy, without adding them. The first answers 409 when
+ *   there is no open slot, and the second an empty array.</li>
+ * </ul>
+ *
+ * <p>Requests are handled by a fixed number of worker threads with a bounded queue in front of
+ * them. A request that finds the queue full is answered right away with 503 and a Retry-After
+ * header, so a burst of clients is pushed back on instead of piling up in memory. Reads ask
+ * the model for copies of the schedules they need, so a planner that pages schedules in is only
+ * asked for those, and every change is made through {@link ICentralSystem#applyBatch}. The model
+ * must be safe to call from as many threads as the server has workers, such as a
+ * {@code ConcurrentPlanner}. A model that is not can be served with one worker.
+ */
+public final class PlannerServer implements AutoCloseable {
+  private static final int RETRY_AFTER_SECONDS = 1;
+  private static final int SHUTDOWN_SECONDS = 10; // How long close waits for the workers
+  private static final int MAX_BODY = 1 << 20; // Larger bodies are refused unread
+  private static final int MAX_TIMES = 100; // The most slots /strategy/times answers with
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HHmm");
+
+  private final ICentralSystem model;
+  private final SchedulingStrategy strategy;
+  private final HttpServer server;
+  private final ThreadPoolExecutor workers;
+  // Held shared by changes to the model, and alone by strategy lookups, which read the live
+  // schedules and pick their host through the model's current user
+  private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+  // Set while the server's own thread refuses a request the workers had no room for
+  private final ThreadLocal<Boolean> shedding = ThreadLocal.withInitial(() -> false);
+
+  private PlannerServer(ICentralSystem model, SchedulingStrategy strategy,
+                        InetSocketAddress address, int threads, int queueCapacity)
+          throws IOException {
+    this.model = model;
+    this.strategy = strategy;
+    BlockingQueue<Runnable> queue = queueCapacity == 0
+            ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+    AtomicInteger workerCount = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue,
+        task -> {
+          Thread worker = new Thread(task, "planner-server-" + workerCount.incrementAndGet());
+          worker.setDaemon(true);
+          return worker;
+        }, this::shed);
+    this.server = HttpServer.create(address, 0);
+    server.createContext("/", this::handle);
+    server.setExecutor(workers);
+    server.start();
+  }
+
+  /**
+   * Starts serving a planner on the given address.
+   *
+   * @param model         the planner being served
+   * @param strategy      the strategy that finds times, which must search the same planner
+   * @param address       the address to listen on, where port 0 picks any free port
+   * @param threads       the number of requests handled at once
+   * @param queueCapacity the number of requests that can wait for a worker before more are
+   *                      refused, which can be 0
+   * @return the running server
+   * @throws IOException              if the address cannot be listened on
+   * @throws IllegalArgumentException if there are no threads or the capacity is negative
+   */
+  public static PlannerServer start(ICentralSystem model, SchedulingStrategy strategy,
+                                    InetSocketAddress address, int threads, int queueCapacity)
+          throws IOException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least one thread");
+    }
+    if (queueCapacity < 0) {
+      throw new IllegalArgumentException("Queue capacity cannot be negative");
+    }
+    return new PlannerServer(model, strategy, address, threads, queueCapacity);
+  }
+
+  /**
+   * Returns the port the server is listening on.
+   *
+   * @return the port
+   */
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops listening and waits for the workers to finish the requests they have, so the planner
+   * is no longer changed by the server once this returns. Gives up waiting after
+   * {@value #SHUTDOWN_SECONDS} seconds or if interrupted.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    workers.shutdown();
+    try {
+      if (!workers.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+        workers.shutdownNow();
+      }
+    } catch (InterruptedException ex) {
+      workers.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Runs an exchange the workers had no room for on the server's thread, which only sends the
+   * refusal, so it is not held up by the planner.
+   */
+  private void shed(Runnable exchange, ThreadPoolExecutor pool) {
+    shedding.set(true);
+    try {
+      exchange.run();
+    } finally {
+      shedding.set(false);
+    }
+  }
+
+  /**
+   * A status and the body to send with it.
+   */
+  private static final class Response {
+    private final int status;
+    private final Object body;
+
+    private Response(int status, Object body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      Response response;
+      if (shedding.get()) {
+        exchange.getResponseHeaders().set("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+        response = error(503, "The planner is busy");
+      } else {
+        response = respond(exchange);
+      }
+      byte[] body = Json.write(response.body).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+      exchange.sendResponseHeaders(response.status, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private Response respond(HttpExchange exchange) {
+    try {
+      return route(exchange);
+    } catch (IllegalArgumentException | IllegalStateException ex) {
+      return error(400, ex.getMessage());
+    } catch (IOException ex) {
+      return error(400, "Could not read the request");
+    } catch (RuntimeException ex) {
+      return error(500, "The request could not be handled");
+    }
+  }
+
+  private Response route(HttpExchange exchange) throws IOException {
+    String method = exchange.getRequestMethod();
+    List<String> path = segments(exchange.getRequestURI());
+    String resource = path.isEmpty() ? "" : path.get(0);
+    switch (resource + "/" + path.size()) {
+      case "users/1":
+        if (method.equals("GET")) {
+          return new Response(200, model.findAllUsers());
+        }
+        return method.equals("POST") ? addUser(object(exchange)) : notAllowed("GET, POST");
+      case "users/3":
+        if (!path.get(2).equals("schedule") && !path.get(2).equals("events")) {
+          break;
+        }
+        if (!method.equals("GET")) {
+          return notAllowed("GET");
+        }
+        if (model.findUserById(path.get(1)) == null) {
+          return error(404, "User is not in the system");
+        }
+        if (path.get(2).equals("schedule")) {
+          return new Response(200, eventsJson(model.userSchedule(path.get(1))));
+        }
+        return eventsAt(path.get(1), query(exchange.getRequestURI()));
+      case "schedules/1":
+        if (!method.equals("GET")) {
+          return notAllowed("GET");
+        }
+        return new Response(200, eventsJson(model.userSchedule(true)));
+      case "events/1":
+        if (!method.equals("POST")) {
+          return notAllowed("POST");
+        }
+        apply(List.of(create(object(exchange))));
+        return new Response(201, Map.of("applied", 1));
+      case "events/2":
+        return event(method, path.get(1), exchange);
+      case "batch/1":
+        if (!method.equals("POST")) {
+          return notAllowed("POST");
+        }
+        List<PlannerCommand> commands = new ArrayList<>();
+        for (Object command : list(Json.parse(body(exchange)), "The batch")) {
+          commands.add(command(map(command, "A command")));
+        }
+        apply(commands);
+        return new Response(200, Map.of("applied", commands.size()));
+      case "availability/1":
+        return method.equals("POST") ? availability(object(exchange)) : notAllowed("POST");
+      case "strategy/2":
+        if (!path.get(1).equals("time") && !path.get(1).equals("times")) {
+          break;
+        }
+        if (!method.equals("POST")) {
+          return notAllowed("POST");
+        }
+        return findTimes(object(exchange), path.get(1).equals("times"));
+      default:
+        break;
+    }
+    return error(404, "No such resource");
+  }
+
+  private Response addUser(Map<String, Object> body) {
+    User user = new User(string(body, "id"));
+    Lock change = gate.readLock();
+    change.lock();
+    try {
+      model.addUser(user);
+    } finally {
+      change.unlock();
+    }
+    return new Response(201, Map.of("id", user.userId()));
+  }
+
+  private Response eventsAt(String userId, Map<String, String> query) {
+    if (!query.containsKey("day") || !query.containsKey("time")) {
+      throw new IllegalArgumentException("Both a day and a time are needed");
+    }
+    List<Event> happening;
+    try {
+      happening = model.findEventsByTime(userId, query.get("day"), query.get("time"));
+    } catch (DateTimeParseException ex) {
+      throw new IllegalArgumentException("Invalid time: " + query.get("time"));
+    }
+    // Read the events from a copy of the schedule, since the live ones can change meanwhile
+    Set<String> names = new HashSet<>();
+    if (happening != null) {
+      for (Event event : happening) {
+        names.add(event.toString());
+      }
+    }
+    Map<List<String>, List<String>> events = new LinkedHashMap<>();
+    model.userSchedule(userId).forEach((info, invitees) -> {
+      if (names.contains(info.get(0))) {
+        events.put(info, invitees);
+      }
+    });
+    return new Response(200, eventsJson(events));
+  }
+
+  private Response event(String method, String name, HttpExchange exchange) throws IOException {
+    switch (method) {
+      case "GET":
+        Event event = model.findEventByName(name);
+        if (event != null) {
+          // The host never changes and always has the event, so read it from their schedule
+          for (Map.Entry<List<String>, List<String>> scheduled
+                  : model.userSchedule(event.hostId()).entrySet()) {
+            if (scheduled.getKey().get(0).equals(name)) {
+              return new Response(200, eventJson(scheduled.getKey(), scheduled.getValue()));
+            }
+          }
+        }
+        return error(404, "Event does not exist in the system");
+      case "PUT":
+        apply(List.of(modify(name, object(exchange))));
+        return new Response(200, Map.of("applied", 1));
+      case "DELETE":
+        String userId = query(exchange.getRequestURI()).get("user");
+        if (userId == null) {
+          throw new IllegalArgumentException("The user leaving the event is needed");
+        }
+        apply(List.of(PlannerCommand.remove(name, userId)));
+        return new Response(200, Map.of("applied", 1));
+      default:
+        return notAllowed("GET, PUT, DELETE");
+    }
+  }
+
+  private void apply(List<PlannerCommand> commands) {
+    Lock change = gate.readLock();
+    change.lock();
+    try {
+      model.applyBatch(commands);
+    } finally {
+      change.unlock();
+    }
+  }
+
+  private Response availability(Map<String, Object> body) {
+    User host = model.findUserById(string(body, "host"));
+    List<String> inviteeIds = strings(body, "invitees");
+    List<User> invitees = new ArrayList<>();
+    for (String userId : inviteeIds) {
+      invitees.add(model.findUserById(userId));
+    }
+    if (host == null || invitees.contains(null)) {
+      return error(404, "User is not in the system");
+    }
+    Event event = new Event(string(body, "name"), string(body, "location"),
+            bool(body, "online"), time(body, "startTime"), time(body, "endTime"),
+            day(body, "startDay"), day(body, "endDay"), host, invitees);
+    return new Response(200,
+            Map.of("free", model.scheduleEvent(host.userId(), event, inviteeIds)));
+  }
+
+  private Response findTimes(Map<String, Object> body, boolean several) {
+    String hostId = string(body, "host");
+    List<String> invitees = strings(body, "invitees");
+    int duration = integer(body, "duration");
+    List<String> eventInfo = List.of(string(body, "name"), string(body, "location"),
+            String.valueOf(bool(body, "online")));
+    int count = several ? integer(body, "count") : 1;
+    if (count < 1 || count > MAX_TIMES) {
+      throw new IllegalArgumentException("Count must be from 1 to " + MAX_TIMES);
+    }
+    // A strategy finds no time as null, which is kept as an empty list rather than put in one
+    List<Event> found = lookup(hostId, invitees, () -> several
+            ? strategy.findTimes(duration, invitees, eventInfo).limit(count)
+                    .collect(Collectors.toList())
+            : Stream.ofNullable(strategy.findTime(duration, invitees, eventInfo))
+                    .collect(Collectors.toList()));
+    if (found == null) {
+      return error(404, "User is not in the system");
+    }
+    if (!several && found.isEmpty()) {
+      return error(409, "No time found");
+    }
+    List<Object> events = new ArrayList<>();
+    for (Event event : found) {
+      events.add(liveEventJson(event));
+    }
+    return new Response(200, several ? events : events.get(0));
+  }
+
+  /**
+   * Runs a strategy lookup with the given host as the current user, alone so no other lookup
+   * changes the current user and no change moves the schedules being searched.
+   *
+   * @return the lookup's result, or null if the host or an invitee is not in the system
+   */
+  private <T> T lookup(String hostId, List<String> invitees, Supplier<T> search) {
+    Lock alone = gate.writeLock();
+    alone.lock();
+    try {
+      if (model.findUserById(hostId) == null) {
+        return null;
+      }
+      for (String userId : invitees) {
+        if (model.findUserById(userId) == null) {
+          return null;
+        }
+      }
+      String previous = model.currentUser();
+      model.setUser(hostId);
+      try {
+        return search.get();
+      } finally {
+        if (previous != null) {
+          model.setUser(previous);
+        }
+      }
+    } finally {
+      alone.unlock();
+    }
+  }
+
+  private static PlannerCommand command(Map<String, Object> json) {
+    String op = string(json, "op");
+    switch (op) {
+      case "create":
+        return create(json);
+      case "modify":
+        return modify(string(json, "event"), json);
+      case "remove":
+        return PlannerCommand.remove(string(json, "event"), string(json, "user"));
+      default:
+        throw new IllegalArgumentException("Unknown op: " + op);
+    }
+  }
+
+  private static PlannerCommand create(Map<String, Object> json) {
+    return PlannerCommand.create(string(json, "host"), string(json, "name"),
+            string(json, "location"), bool(json, "online"), time(json, "startTime"),
+            time(json, "endTime"), day(json, "startDay"), day(json, "endDay"),
+            strings(json, "invitees"));
+  }
+
+  private static PlannerCommand modify(String eventName, Map<String, Object> json) {
+    // The keys modifyEvent takes, every one of which must be given
+    Map<String, String> changes = new HashMap<>();
+    changes.put("name", string(json, "name"));
+    changes.put("location", string(json, "location"));
+    changes.put("online", String.valueOf(bool(json, "online")));
+    changes.put("start", day(json, "startDay").name());
+    changes.put("end", day(json, "endDay").name());
+    changes.put("start-time", time(json, "startTime").format(TIME_FORMAT));
+    changes.put("end-time", time(json, "endTime").format(TIME_FORMAT));
+    changes.put("invited", String.join(" ", strings(json, "toggle")));
+    return PlannerCommand.modify(eventName, changes);
+  }
+
+  private static List<Object> eventsJson(Map<List<String>, List<String>> events) {
+    List<Object> json = new ArrayList<>();
+    events.forEach((info, invitees) -> json.add(eventJson(info, invitees)));
+    return json;
+  }
+
+  private static Map<String, Object> liveEventJson(Event event) {
+    List<String> invitees = new ArrayList<>();
+    for (User invitee : event.invitees()) {
+      invitees.add(invitee.userId());
+    }
+    return eventJson(event.eventInfo(), invitees);
+  }
+
+  /**
+   * Writes an event from its information, in the order {@link Event#eventInfo()} gives it.
+   */
+  private static Map<String, Object> eventJson(List<String> info, List<String> invitees) {
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("name", info.get(0));
+    json.put("startDay", info.get(1));
+    json.put("startTime", info.get(2));
+    json.put("endDay", info.get(3));
+    json.put("endTime", info.get(4));
+    json.put("location", info.get(5));
+    json.put("online", Boolean.parseBoolean(info.get(6)));
+    json.put("host", info.get(7));
+    json.put("invitees", invitees);
+    return json;
+  }
+
+  private static Response error(int status, String message) {
+    return new Response(status, Map.of("error", message == null ? "Invalid request" : message));
+  }
+
+  private static Response notAllowed(String allowed) {
+    return error(405, "Only " + allowed + " can be used here");
+  }
+
+  private static String body(HttpExchange exchange) throws IOException {
+    byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY + 1);
+    if (body.length > MAX_BODY) {
+      throw new IllegalArgumentException("The request is too large");
+    }
+    return new String(body, StandardCharsets.UTF_8);
+  }
+
+  private static Map<String, Object> object(HttpExchange exchange) throws IOException {
+    return map(Json.parse(body(exchange)), "The request");
+  }
+
+  /**
+   * Splits a path into its decoded segments, leaving out empty ones.
+   */
+  private static List<String> segments(URI uri) {
+    List<String> segments = new ArrayList<>();
+    for (String segment : uri.getRawPath().split("/")) {
+      if (!segment.isEmpty()) {
+        // A plus sign in a path is itself, not a space
+        segments.add(URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8));
+      }
+    }
+    return segments;
+  }
+
+  private static Map<String, String> query(URI uri) {
+    Map<String, String> query = new HashMap<>();
+    if (uri.getRawQuery() != null) {
+      for (String parameter : uri.getRawQuery().split("&")) {
+        int equals = parameter.indexOf('=');
+        if (equals > 0) {
+          query.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                  URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return query;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> map(Object value, String what) {
+    if (!(value instanceof Map)) {
+      throw new IllegalArgumentException(what + " must be a JSON object");
+    }
+    return (Map<String, Object>) value;
+  }
+
+  private static List<?> list(Object value, String what) {
+    if (!(value instanceof List)) {
+      throw new IllegalArgumentException(what + " must be a JSON array");
+    }
+    return (List<?>) value;
+  }
+
+  private static String string(Map<String, Object> json, String key) {
+    Object value = json.get(key);
+    if (!(value instanceof String)) {
+      throw new IllegalArgumentException("Missing or invalid " + key);
+    }
+    return (String) value;
+  }
+
+  private static boolean bool(Map<String, Object> json, String key) {
+    Object value = json.get(key);
+    if (!(value instanceof Boolean)) {
+      throw new IllegalArgumentException("Missing or invalid " + key);
+    }
+    return (Boolean) value;
+  }
+
+  private static int integer(Map<String, Object> json, String key) {
+    Object value = json.get(key);
+    if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+      throw new IllegalArgumentException("Missing or invalid " + key);
+    }
+    return ((Long) value).intValue();
+  }
+
+  /**
+   * Reads an array of strings, which is empty if the key is missing.
+   */
+  private static List<String> strings(Map<String, Object> json, String key) {
+    List<String> strings = new ArrayList<>();
+    if (json.get(key) == null) {
+      return strings;
+    }
+    for (Object value : list(json.get(key), key)) {
+      if (!(value instanceof String)) {
+        throw new IllegalArgumentException("Missing or invalid " + key);
+      }
+      strings.add((String) value);
+    }
+    return strings;
+  }
+
+  private static LocalTime time(Map<String, Object> json, String key) {
+    try {
+      return LocalTime.parse(string(json, key), TIME_FORMAT);
+    } catch (DateTimeParseException ex) {
+      throw new IllegalArgumentException("Missing or invalid " + key);
+    }
+  }
+
+  private static DayOfWeek day(Map<String, Object> json, String key) {
+    try {
+      return DayOfWeek.valueOf(string(json, key).trim().toUpperCase());
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Missing or invalid " + key);
+    }
+  }
+}
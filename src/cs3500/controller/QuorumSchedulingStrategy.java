@@ -0,0 +1,86 @@
+package cs3500.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cs3500.model.ICentralSystem;
+import cs3500.model.User;
+
+/**
+ * Searches for the first time slot starting at Sunday 00:00 when the host and at least a
+ * quorum of the invited users are free. Meant for large meetings where not everyone has to
+ * attend.
+ */
+public class QuorumSchedulingStrategy {
+
+  private final ICentralSystem model;
+
+  /**
+   * Creates the quorum strategy with the model passed in.
+   * @param model the associated model
+   */
+  public QuorumSchedulingStrategy(ICentralSystem model) {
+    this.model = model;
+  }
+
+  /**
+   * Finds the earliest slot when the host and at least the given number of invited users are
+   * all free for the whole duration. Each invitee's schedule is read once, so the search takes
+   * time linear in the total number of events plus the minutes in a week.
+   * @param duration the duration of the scheduled event, less than a week
+   * @param quorum the fewest invited users who must be able to attend
+   * @param users the invited users
+   * @param eventInfo the event information
+   * @return the slot found, with the invitees who cannot attend
+   * @throws IllegalArgumentException if the duration or quorum is out of range, any of the users
+   *                                  is not in the system, or no time slot can be found
+   */
+  public QuorumSlot findTime(int duration, int quorum, List<String> users, List<String> eventInfo)
+          throws IllegalArgumentException {
+    if (duration <= 0 || duration >= Availability.MINUTES_PER_WEEK) {
+      throw new IllegalArgumentException("Duration must be more than zero and less than a week");
+    }
+    if (quorum < 0 || quorum > users.size()) {
+      throw new IllegalArgumentException("Quorum must be between zero and the number of invitees");
+    }
+    List<User> participants = StrategyHelper.participants(model, users);
+    Availability hostBusy = Availability.of(List.of(participants.remove(0)));
+    List<Availability> inviteeBusy = new ArrayList<>();
+    // Changes in the number of invitees who cannot make an event starting at each minute
+    int[] blocked = new int[Availability.MINUTES_PER_WEEK + 1];
+    for (User invitee : participants) {
+      Availability busy = Availability.of(List.of(invitee));
+      busy.addBlockedStarts(duration, blocked);
+      inviteeBusy.add(busy);
+    }
+    int[] hostBlocked = new int[Availability.MINUTES_PER_WEEK + 1];
+    hostBusy.addBlockedStarts(duration, hostBlocked);
+
+    // Running sums of the changes give the counts at each start in constant time
+    int absentCount = 0;
+    int hostAbsent = 0;
+    for (int start = 0; start < Availability.MINUTES_PER_WEEK; start++) {
+      absentCount += blocked[start];
+      hostAbsent += hostBlocked[start];
+      if (hostAbsent == 0 && users.size() - absentCount >= quorum) {
+        return slotAt(start, duration, users, inviteeBusy, eventInfo);
+      }
+    }
+    throw new IllegalArgumentException("Could not find a time when enough invitees are free");
+  }
+
+  private QuorumSlot slotAt(int start, int duration, List<String> users,
+                            List<Availability> inviteeBusy, List<String> eventInfo) {
+    List<String> attending = new ArrayList<>();
+    List<String> absent = new ArrayList<>();
+    for (int index = 0; index < users.size(); index++) {
+      if (inviteeBusy.get(index).isFree(start, duration)) {
+        attending.add(users.get(index));
+      } else {
+        absent.add(users.get(index));
+      }
+    }
+    return new QuorumSlot(
+            StrategyHelper.createEvent(model, eventInfo, attending, start, duration), absent);
+  }
+}
@@ -0,0 +1,37 @@
+package cs3500.controller;
+
+import java.util.List;
+
+import cs3500.model.Event;
+
+/**
+ * A time slot found by the quorum strategy: the event with the host and the invitees who can
+ * attend, and the IDs of the invitees who cannot.
+ */
+public final class QuorumSlot {
+  private final Event event;
+  private final List<String> absent;
+
+  QuorumSlot(Event event, List<String> absent) {
+    this.event = event;
+    this.absent = List.copyOf(absent);
+  }
+
+  /**
+   * Returns the event at the slot, whose invitees are only the ones who can attend.
+   *
+   * @return the event
+   */
+  public Event event() {
+    return event;
+  }
+
+  /**
+   * Returns the IDs of the invitees who are busy during the slot.
+   *
+   * @return the absent invitees in the order they were invited
+   */
+  public List<String> absent() {
+    return absent;
+  }
+}
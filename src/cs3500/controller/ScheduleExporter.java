@@ -0,0 +1,137 @@
+package cs3500.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cs3500.model.ICentralSystem;
+import cs3500.model.PlannerState;
+
+/**
+ * Saves every user's schedule to its own XML file, writing the files in parallel. The writers
+ * read an immutable snapshot of the model, so they never hold up changes to it and the current
+ * user is never changed. The exporter remembers the version of each user it last saved,
+ * so later exports can skip the users who have not changed.
+ */
+public final class ScheduleExporter {
+  private final ICentralSystem model;
+  private final int parallelism;
+  private final Map<String, Long> savedVersions = new HashMap<>(); // Of the users in savedTo
+  private File savedTo; // The directory of the last export, or null if there has been none
+
+  /**
+   * Creates an exporter for the given model.
+   *
+   * @param model       the model whose schedules are saved
+   * @param parallelism the number of threads writing files
+   * @throws IllegalArgumentException if the parallelism is less than one
+   */
+  public ScheduleExporter(ICentralSystem model, int parallelism)
+          throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least one");
+    }
+    this.model = model;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Saves the schedule of every user in the system to a file named after the user in the given
+   * directory. The files are the same as saving each user on its own would write.
+   *
+   * @param directory the directory the files are written to
+   * @return the size and write time of each file, and the reason any file could not be written
+   * @throws IllegalStateException if the export is interrupted
+   */
+  public ExportSummary exportAll(File directory) throws IllegalStateException {
+    return export(directory, false);
+  }
+
+  /**
+   * Saves the schedules of only the users whose schedules changed since this exporter last
+   * saved them to the same directory. Users who failed to save last time are saved again. An
+   * export to a different directory saves every user.
+   *
+   * @param directory the directory the files are written to
+   * @return the size and write time of each file written, and the reason any file could not be
+   *         written
+   * @throws IllegalStateException if the export is interrupted
+   */
+  public ExportSummary exportChanged(File directory) throws IllegalStateException {
+    return export(directory, true);
+  }
+
+  private ExportSummary export(File directory, boolean changedOnly)
+          throws IllegalStateException {
+    if (!directory.equals(savedTo)) {
+      savedVersions.clear();
+      savedTo = directory;
+    }
+    PlannerState state = model.snapshot();
+    List<String> userIds = new ArrayList<>();
+    for (String userId : state.findAllUsers()) {
+      Long saved = savedVersions.get(userId);
+      if (!changedOnly || saved == null || saved != state.userVersion(userId)) {
+        userIds.add(userId);
+      }
+    }
+
+    ExecutorService writers = Executors.newFixedThreadPool(parallelism);
+    Map<String, Long> bytesWritten = new LinkedHashMap<>();
+    Map<String, Duration> writeTimes = new LinkedHashMap<>();
+    Map<String, String> failures = new LinkedHashMap<>();
+    try {
+      List<Future<Long>> written = new ArrayList<>();
+      for (String userId : userIds) {
+        File file = new File(directory, userId + ".xml");
+        written.add(writers.submit(() -> write(ScheduleWriter.snapshot(state, userId), file)));
+      }
+      for (int index = 0; index < userIds.size(); index++) {
+        String fileName = userIds.get(index) + ".xml";
+        try {
+          long nanos = written.get(index).get();
+          bytesWritten.put(fileName, new File(directory, fileName).length());
+          writeTimes.put(fileName, Duration.ofNanos(nanos));
+          // Only the version in the snapshot is known to be on disk
+          savedVersions.put(userIds.get(index), state.userVersion(userIds.get(index)));
+        } catch (ExecutionException ex) {
+          savedVersions.remove(userIds.get(index));
+          failures.put(fileName, "Failed to write schedule to XML file: "
+                  + new File(directory, fileName).getPath());
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Export was interrupted");
+    } finally {
+      writers.shutdownNow();
+    }
+    return new ExportSummary(bytesWritten, writeTimes, failures);
+  }
+
+  /**
+   * Writes one captured schedule to its file.
+   *
+   * @param schedule the captured schedule
+   * @param file     the file being written
+   * @return how long the write took in nanoseconds
+   * @throws IOException if there is an error writing to the file
+   */
+  private static long write(ScheduleWriter.Snapshot schedule, File file) throws IOException {
+    long start = System.nanoTime();
+    try (Writer out = FileOperations.openForWrite(file)) {
+      new ScheduleWriter(out).writeSchedule(schedule);
+    }
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,160 @@
+package cs3500.controller;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.stream.XMLStreamException;
+
+import cs3500.model.ICentralSystem;
+import cs3500.model.User;
+
+/**
+ * Imports a whole directory of schedule XML files as a pipeline. Files are parsed in parallel
+ * into a bounded queue, and a single commit stage on the calling thread adds them to the model
+ * one at a time, so the model is never used from more than one thread.
+ */
+public final class ScheduleImporter {
+
+  private final ICentralSystem model;
+  private final int parallelism;
+  private final int queueCapacity;
+
+  /**
+   * Creates an importer for the given model.
+   *
+   * @param model         the model the schedules are added to
+   * @param parallelism   the number of threads parsing files
+   * @param queueCapacity the most files parsed or being parsed ahead of the commit stage, which
+   *                      should be at least the parallelism to keep every thread busy
+   * @throws IllegalArgumentException if the parallelism or capacity is less than one
+   */
+  public ScheduleImporter(ICentralSystem model, int parallelism, int queueCapacity)
+          throws IllegalArgumentException {
+    if (parallelism < 1 || queueCapacity < 1) {
+      throw new IllegalArgumentException("Parallelism and queue capacity must be at least one");
+    }
+    this.model = model;
+    this.parallelism = parallelism;
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Imports every XML file in the directory, in order of file name. The result is the same as
+   * uploading each file in that order, except that a file with a tag missing or invalid adds
+   * none of its events. A file that fails does not stop the rest of the import.
+   *
+   * @param directory the directory holding the schedule files
+   * @param progress  the listener told after each file is committed
+   * @return the number of imported files and the reason each of the other files failed
+   * @throws IllegalArgumentException if the directory cannot be listed
+   * @throws IllegalStateException    if the import is interrupted
+   */
+  public ImportSummary importDirectory(File directory, ImportProgress progress)
+          throws IllegalArgumentException, IllegalStateException {
+    File[] files = directory.listFiles((dir, name) -> name.toLowerCase().endsWith(".xml"));
+    if (files == null) {
+      throw new IllegalArgumentException("Could not list the directory: " + directory);
+    }
+    Arrays.sort(files);
+
+    ExecutorService parsers = Executors.newFixedThreadPool(parallelism);
+    // Parses in file order, so the commit stage only waits on the file it needs next
+    Deque<Future<ParsedFile>> queue = new ArrayDeque<>(queueCapacity);
+    Map<String, String> failures = new LinkedHashMap<>();
+    int submitted = 0;
+    int imported = 0;
+    try {
+      for (int done = 0; done < files.length; done++) {
+        // Keep the parsers ahead of the commit stage, up to the capacity of the queue
+        while (submitted < files.length && queue.size() < queueCapacity) {
+          File file = files[submitted++];
+          queue.add(parsers.submit(() -> parse(file)));
+        }
+        try {
+          commit(queue.poll().get());
+          imported++;
+        } catch (ExecutionException ex) {
+          failures.put(files[done].getName(), ex.getCause().getMessage());
+        } catch (IllegalStateException | IllegalArgumentException ex) {
+          failures.put(files[done].getName(), ex.getMessage());
+        }
+        progress.update(done + 1, files.length);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Import was interrupted");
+    } finally {
+      parsers.shutdownNow();
+    }
+    return new ImportSummary(imported, failures);
+  }
+
+  /**
+   * Reads every event of a schedule file without touching the model.
+   *
+   * @param file the file being read
+   * @return the user ID and events of the file
+   * @throws IllegalStateException if there is an error in reading or parsing the file, or the
+   *                               schedule has no user ID
+   */
+  private static ParsedFile parse(File file) throws IllegalStateException {
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file));
+         ScheduleReader reader = new ScheduleReader(in)) {
+      String userId = reader.scheduleId();
+      if (userId.trim().isEmpty()) {
+        throw new IllegalStateException("The schedule has no user ID");
+      }
+      List<ScheduleReader.EventRecord> events = new ArrayList<>();
+      for (ScheduleReader.EventRecord event = reader.nextEvent(); event != null;
+           event = reader.nextEvent()) {
+        events.add(event);
+      }
+      return new ParsedFile(userId, events);
+    } catch (IOException ioEx) {
+      throw new IllegalStateException("Error in opening the file");
+    } catch (XMLStreamException xmlEx) {
+      throw new IllegalStateException("Error in parsing the file");
+    }
+  }
+
+  /**
+   * Adds a parsed file to the model the same way uploading it would.
+   *
+   * @param parsed the parsed file
+   * @throws IllegalStateException if an event could not be created
+   */
+  private void commit(ParsedFile parsed) throws IllegalStateException {
+    User user = FileOperations.findOrAddUser(model, parsed.userId);
+    model.setUser(user.userId());
+    for (ScheduleReader.EventRecord event : parsed.events) {
+      FileOperations.addEvent(event, user, model);
+    }
+  }
+
+  /**
+   * The user ID and events read from one schedule file.
+   */
+  private static final class ParsedFile {
+    private final String userId;
+    private final List<ScheduleReader.EventRecord> events;
+
+    private ParsedFile(String userId, List<ScheduleReader.EventRecord> events) {
+      this.userId = userId;
+      this.events = events;
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package cs3500.controller;
+
+import java.io.InputStream;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import cs3500.model.DayOfWeek;
+
+/**
+ * Pull parser for schedule XML files and whole planner files. Reads one event at a time
+ * straight from the stream, so memory use does not grow with the size of the file.
+ */
+final class ScheduleReader implements AutoCloseable {
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HHmm");
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  private final XMLStreamReader reader;
+
+  /**
+   * Creates a reader over the given stream of schedule XML.
+   *
+   * @param in the stream being read, which is not closed by this reader
+   * @throws XMLStreamException if the stream cannot be read as XML
+   */
+  ScheduleReader(InputStream in) throws XMLStreamException {
+    this.reader = FACTORY.createXMLStreamReader(in);
+  }
+
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    // Schedule files never need a DTD, and loading one could reach outside the file
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
+  /**
+   * Reads up to the root element and returns the ID of the user the schedule belongs to. Must be
+   * called before the first event is read.
+   *
+   * @return the user ID, which is empty if the root element has none
+   * @throws XMLStreamException if the file is not well-formed
+   */
+  String scheduleId() throws XMLStreamException {
+    reader.nextTag();
+    String id = reader.getAttributeValue(null, "id");
+    return id == null ? "" : id;
+  }
+
+  /**
+   * Reads up to the end of the user index of a planner file. Must be called before the first
+   * event is read.
+   *
+   * @return the IDs of the users, in file order
+   * @throws XMLStreamException    if the file is not well-formed
+   * @throws IllegalStateException if the file is not a planner file or a user has no ID
+   */
+  List<String> userIndex() throws XMLStreamException, IllegalStateException {
+    reader.nextTag();
+    if (!reader.getLocalName().equals("planner")) {
+      throw new IllegalStateException("The file is not a planner file");
+    }
+    List<String> index = new ArrayList<>();
+    while (reader.hasNext()) {
+      int type = reader.next();
+      if (type == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("users")) {
+        break;
+      }
+      if (type == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("user")) {
+        String id = reader.getAttributeValue(null, "id");
+        if (id == null) {
+          throw new IllegalStateException("user tag has no id");
+        }
+        index.add(id);
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Reads the next event in the schedule.
+   *
+   * @return the event, or null if there are no more events
+   * @throws XMLStreamException    if the file is not well-formed
+   * @throws IllegalStateException if the event is missing a tag or has an invalid value
+   */
+  EventRecord nextEvent() throws XMLStreamException, IllegalStateException {
+    while (reader.hasNext()) {
+      if (reader.next() == XMLStreamConstants.START_ELEMENT
+              && reader.getLocalName().equals("event")) {
+        return readEvent();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reads the tags of the event the reader is at the start of, up to its end tag. Only the
+   * first of each tag is used, except for the user IDs.
+   */
+  private EventRecord readEvent() throws XMLStreamException {
+    EventRecord event = new EventRecord();
+    int depth = 1;
+    while (depth > 0) {
+      int type = reader.next();
+      if (type == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      } else if (type == XMLStreamConstants.START_ELEMENT) {
+        if (!readField(event, reader.getLocalName())) {
+          depth++; // A container tag, such as time, location, or users
+        }
+      }
+    }
+    return event.validate();
+  }
+
+  /**
+   * Reads the text of the tag the reader is at the start of if it is one of the event's fields.
+   *
+   * @return true if the tag was a field and has been read up to its end tag, false otherwise
+   */
+  private boolean readField(EventRecord event, String tag) throws XMLStreamException {
+    switch (tag) {
+      case "name":
+        event.name = first(event.name);
+        break;
+      case "place":
+        event.location = first(event.location);
+        break;
+      case "online":
+        event.online = first(event.online);
+        break;
+      case "start":
+        event.start = first(event.start);
+        break;
+      case "end":
+        event.end = first(event.end);
+        break;
+      case "start-day":
+        event.startDay = first(event.startDay);
+        break;
+      case "end-day":
+        event.endDay = first(event.endDay);
+        break;
+      case "uid":
+        event.userIds.add(reader.getElementText().trim());
+        break;
+      default:
+        return false;
+    }
+    return true;
+  }
+
+  private String first(String current) throws XMLStreamException {
+    String text = reader.getElementText().trim();
+    return current == null ? text : current;
+  }
+
+  @Override
+  public void close() throws XMLStreamException {
+    reader.close();
+  }
+
+  /**
+   * The values of one event read from a schedule file. The users are kept as IDs, so reading
+   * never touches the model.
+   */
+  static final class EventRecord {
+    private String name;
+    private String location;
+    private String online;
+    private String start;
+    private String end;
+    private String startDay;
+    private String endDay;
+    private final List<String> userIds = new ArrayList<>();
+
+    private boolean isOnline;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private DayOfWeek startDayOfWeek;
+    private DayOfWeek endDayOfWeek;
+
+    /**
+     * Checks that every tag was present and parses the values, in the same order the tags were
+     * checked when reading the whole file into a document.
+     */
+    private EventRecord validate() throws IllegalStateException, IllegalArgumentException {
+      require(name, "name");
+      require(location, "place");
+      require(online, "online");
+      online = online.toLowerCase();
+      if (!online.equals("true") && !online.equals("false")) {
+        throw new IllegalArgumentException("Invalid online status");
+      }
+      isOnline = Boolean.parseBoolean(online);
+      if (start == null || end == null) {
+        throw new IllegalStateException("The file does not contain the proper tag(s)");
+      }
+      try {
+        startTime = LocalTime.parse(start, TIME_FORMAT);
+        endTime = LocalTime.parse(end, TIME_FORMAT);
+      } catch (DateTimeParseException ex) {
+        throw new IllegalStateException("Time(s) are not in the correct format");
+      }
+      require(startDay, "start-day");
+      startDayOfWeek = DayOfWeek.valueOf(startDay.toUpperCase());
+      require(endDay, "end-day");
+      endDayOfWeek = DayOfWeek.valueOf(endDay.toUpperCase());
+      if (userIds.isEmpty()) {
+        throw new IllegalStateException("uid tag does not exist or it has no elements");
+      }
+      return this;
+    }
+
+    private static void require(String value, String tag) throws IllegalStateException {
+      if (value == null) {
+        throw new IllegalStateException(tag + " tag does not exist or it has no elements");
+      }
+    }
+
+    /**
+     * Returns the name of the event.
+     *
+     * @return the name
+     */
+    String name() {
+      return name;
+    }
+
+    /**
+     * Returns where the event takes place.
+     *
+     * @return the location
+     */
+    String location() {
+      return location;
+    }
+
+    /**
+     * Returns whether the event is online.
+     *
+     * @return true if the event is online, false otherwise
+     */
+    boolean isOnline() {
+      return isOnline;
+    }
+
+    /**
+     * Returns the time the event starts.
+     *
+     * @return the start time
+     */
+    LocalTime startTime() {
+      return startTime;
+    }
+
+    /**
+     * Returns the time the event ends.
+     *
+     * @return the end time
+     */
+    LocalTime endTime() {
+      return endTime;
+    }
+
+    /**
+     * Returns the day the event starts.
+     *
+     * @return the start day
+     */
+    DayOfWeek startDay() {
+      return startDayOfWeek;
+    }
+
+    /**
+     * Returns the day the event ends.
+     *
+     * @return the end day
+     */
+    DayOfWeek endDay() {
+      return endDayOfWeek;
+    }
+
+    /**
+     * Returns the IDs of the users of the event.
+     *
+     * @return the host's ID followed by the invited users' IDs
+     */
+    List<String> userIds() {
+      return userIds;
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package cs3500.controller;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cs3500.model.PlannerState;
+
+/**
+ * Streams a user's schedule out as XML, one event at a time, from a snapshot of the planner.
+ * Can also write a whole planner as one document, where each event is written once.
+ * Text and attribute values are escaped, so any name or location makes a well-formed file.
+ */
+final class ScheduleWriter {
+  // Indentation for each nesting level, 4 spaces per level
+  private static final String[] INDENTS = {"", "    ", "        ", "            "};
+  // Events are written in order of the time of day they start, like the string map sorted them.
+  // Times are formatted as HHmm, so they sort the same as text.
+  private static final Comparator<PlannerState.EventState> BY_START_TIME =
+      Comparator.comparing(event -> event.eventInfo().get(2));
+
+  private final Writer out;
+
+  /**
+   * Creates a writer that writes schedules to the given output.
+   *
+   * @param out the output, which should be buffered
+   */
+  ScheduleWriter(Writer out) {
+    this.out = out;
+  }
+
+  /**
+   * Writes a schedule captured earlier, which can be done on any thread.
+   *
+   * @param schedule the captured schedule
+   * @throws IOException if there is an error writing to the output
+   */
+  void writeSchedule(Snapshot schedule) throws IOException {
+    out.write("<?xml version=\"1.0\"?>\n");
+    out.write("<schedule id=\"");
+    escape(schedule.userId, true);
+    out.write("\">\n");
+    for (int index = 0; index < schedule.infos.size(); index++) {
+      writeEvent(schedule.infos.get(index), schedule.invitees.get(index));
+    }
+    out.write("</schedule>\n");
+  }
+
+  /**
+   * Writes the schedules of every user in a state of the planner as one document, which can be
+   * done on any thread. An index of the users comes first, so users without any events are
+   * kept, followed by every event on their schedules written once with all of its users, so a
+   * shared event is not repeated for each of its users.
+   *
+   * @param state the state of the planner, whose users are indexed in the order they were added
+   * @throws IOException if there is an error writing to the output
+   */
+  void writePlanner(PlannerState state) throws IOException {
+    List<String> userIds = state.findAllUsers();
+    // Collect the events in the order they are first seen, each shared event only once
+    Map<PlannerState.EventState, Boolean> seen = new IdentityHashMap<>();
+    List<PlannerState.EventState> events = new ArrayList<>();
+    for (String userId : userIds) {
+      List<PlannerState.EventState> schedule = state.userSchedule(userId);
+      schedule.sort(BY_START_TIME);
+      for (PlannerState.EventState event : schedule) {
+        if (seen.put(event, true) == null) {
+          events.add(event);
+        }
+      }
+    }
+
+    out.write("<?xml version=\"1.0\"?>\n");
+    out.write("<planner>\n");
+    open("users", 1);
+    for (String userId : userIds) {
+      out.write(INDENTS[2]);
+      out.write("<user id=\"");
+      escape(userId, true);
+      out.write("\"/>\n");
+    }
+    close("users", 1);
+    for (PlannerState.EventState event : events) {
+      writeEvent(event.eventInfo(), event.invitees());
+    }
+    out.write("</planner>\n");
+  }
+
+  /**
+   * Captures what is written for a user's schedule from an immutable state of the planner, which
+   * can be done on any thread.
+   *
+   * @param state  the state of the planner
+   * @param userId the ID of the user whose schedule is captured
+   * @return the captured schedule
+   * @throws IllegalArgumentException if the user was not in the planner
+   */
+  static Snapshot snapshot(PlannerState state, String userId) throws IllegalArgumentException {
+    List<PlannerState.EventState> events = state.userSchedule(userId);
+    events.sort(BY_START_TIME);
+    List<List<String>> infos = new ArrayList<>(events.size());
+    List<List<String>> invitees = new ArrayList<>(events.size());
+    for (PlannerState.EventState event : events) {
+      infos.add(event.eventInfo());
+      invitees.add(event.invitees());
+    }
+    return new Snapshot(userId, infos, invitees);
+  }
+
+  private void writeEvent(List<String> info, List<String> invitees) throws IOException {
+    open("event", 1);
+    writeFields(info, invitees);
+    close("event", 1);
+  }
+
+  private void writeFields(List<String> info, List<String> invitees) throws IOException {
+    field("name", info.get(0), 2);
+    open("time", 2);
+    field("start-day", info.get(1), 3);
+    field("start", info.get(2), 3);
+    field("end-day", info.get(3), 3);
+    field("end", info.get(4), 3);
+    close("time", 2);
+    open("location", 2);
+    field("online", info.get(6), 3);
+    field("place", info.get(5), 3);
+    close("location", 2);
+    open("users", 2);
+    field("uid", info.get(7), 3); // Host
+    for (String invitee : invitees) {
+      field("uid", invitee, 3);
+    }
+    close("users", 2);
+  }
+
+  private void open(String tag, int indentation) throws IOException {
+    out.write(INDENTS[indentation]);
+    out.write('<');
+    out.write(tag);
+    out.write(">\n");
+  }
+
+  private void close(String tag, int indentation) throws IOException {
+    out.write(INDENTS[indentation]);
+    out.write("</");
+    out.write(tag);
+    out.write(">\n");
+  }
+
+  private void field(String tag, String text, int indentation) throws IOException {
+    out.write(INDENTS[indentation]);
+    out.write('<');
+    out.write(tag);
+    out.write('>');
+    escape(text, false);
+    out.write("</");
+    out.write(tag);
+    out.write(">\n");
+  }
+
+  /**
+   * Writes text with the characters that are special in XML replaced by their entities. Only
+   * ampersands and less-than signs are special in element text, so anything else is written as
+   * it is, and in an attribute value quotes are special too. Runs of ordinary characters are
+   * written in one call.
+   */
+  private void escape(String text, boolean attribute) throws IOException {
+    int written = 0;
+    for (int index = 0; index < text.length(); index++) {
+      String entity;
+      switch (text.charAt(index)) {
+        case '&':
+          entity = "&amp;";
+          break;
+        case '<':
+          entity = "&lt;";
+          break;
+        case '"':
+          if (!attribute) {
+            continue;
+          }
+          entity = "&quot;";
+          break;
+        default:
+          continue;
+      }
+      out.write(text, written, index - written);
+      out.write(entity);
+      written = index + 1;
+    }
+    out.write(text, written, text.length() - written);
+  }
+
+  /**
+   * A user's schedule as it will be written: the info and invitee IDs of each event, in the
+   * order they are written. Nothing in it changes when the model does.
+   */
+  static final class Snapshot {
+    private final String userId;
+    private final List<List<String>> infos;
+    private final List<List<String>> invitees;
+
+    private Snapshot(String userId, List<List<String>> infos, List<List<String>> invitees) {
+      this.userId = userId;
+      this.infos = infos;
+      this.invitees = invitees;
+    }
+  }
+}
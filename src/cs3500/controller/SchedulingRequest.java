@@ -0,0 +1,63 @@
+package cs3500.controller;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A request to schedule one event as part of a batch, holding the same information a single
+ * call to {@link SchedulingStrategy#findTime(int, List, List)} takes.
+ */
+public final class SchedulingRequest {
+  private final int duration;
+  private final List<String> eventInfo;
+  private final List<String> users;
+
+  /**
+   * Creates a request for an event of the given duration.
+   *
+   * @param duration  the duration of the event in minutes
+   * @param eventInfo the name, location, and online status of the event
+   * @param users     the IDs of the invited users
+   * @throws IllegalArgumentException if the duration is not positive or the event info is not
+   *                                  exactly a name, location, and online status
+   */
+  public SchedulingRequest(int duration, List<String> eventInfo, List<String> users)
+          throws IllegalArgumentException {
+    if (duration <= 0) {
+      throw new IllegalArgumentException("Duration must be positive");
+    }
+    if (Objects.requireNonNull(eventInfo, "Event info cannot be null").size() != 3) {
+      throw new IllegalArgumentException("Event info must be a name, location, and online status");
+    }
+    this.duration = duration;
+    this.eventInfo = List.copyOf(eventInfo);
+    this.users = List.copyOf(Objects.requireNonNull(users, "Users cannot be null"));
+  }
+
+  /**
+   * Returns the duration of the requested event.
+   *
+   * @return the duration in minutes
+   */
+  public int duration() {
+    return duration;
+  }
+
+  /**
+   * Returns the name, location, and online status of the requested event.
+   *
+   * @return the event information
+   */
+  public List<String> eventInfo() {
+    return eventInfo;
+  }
+
+  /**
+   * Returns the IDs of the users invited to the requested event.
+   *
+   * @return the invited users
+   */
+  public List<String> users() {
+    return users;
+  }
+}
@@ -0,0 +1,77 @@
+package cs3500.controller;
+
+import cs3500.model.Event;
+
+/**
+ * The outcome of one request in a batch: either the event that was placed in the model, or the
+ * reason it could not be placed.
+ */
+public final class SchedulingResult {
+  private final SchedulingRequest request;
+  private final Event event;
+  private final String reason;
+
+  private SchedulingResult(SchedulingRequest request, Event event, String reason) {
+    this.request = request;
+    this.event = event;
+    this.reason = reason;
+  }
+
+  /**
+   * Creates the result for a request that was placed.
+   *
+   * @param request the request
+   * @param event   the event added to the model
+   * @return the result
+   */
+  static SchedulingResult placed(SchedulingRequest request, Event event) {
+    return new SchedulingResult(request, event, null);
+  }
+
+  /**
+   * Creates the result for a request that could not be placed.
+   *
+   * @param request the request
+   * @param reason  why the request could not be placed
+   * @return the result
+   */
+  static SchedulingResult failed(SchedulingRequest request, String reason) {
+    return new SchedulingResult(request, null, reason);
+  }
+
+  /**
+   * Returns the request this is the result of.
+   *
+   * @return the request
+   */
+  public SchedulingRequest request() {
+    return request;
+  }
+
+  /**
+   * Returns whether the request was placed in the model.
+   *
+   * @return true if the event was placed, false otherwise
+   */
+  public boolean isPlaced() {
+    return event != null;
+  }
+
+  /**
+   * Returns the event that was placed.
+   *
+   * @return the placed event, or null if the request could not be placed
+   */
+  public Event event() {
+    return event;
+  }
+
+  /**
+   * Returns why the request could not be placed.
+   *
+   * @return the reason, or null if the request was placed
+   */
+  public String reason() {
+    return reason;
+  }
+}
@@ -1,6 +1,8 @@
 package cs3500.controller;
 
 import java.util.List;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.Stream;
 
 import cs3500.model.Event;
 
@@ -18,4 +20,53 @@ public interface SchedulingStrategy {
    */
   Event findTime(int duration, List<String> users, List<String> eventInfo)
           throws IllegalArgumentException;
+
+  /**
+   * Lists every time slot that fits the strategy's criteria, from earliest to latest. Slots are
+   * only searched for as the stream pulls them, so taking the first few is cheap, and the stream
+   * can be made parallel.
+   * @param duration the duration of the scheduled events
+   * @param users the invited users
+   * @param eventInfo the event information
+   * @return the stream of events at the open time slots
+   * @throws IllegalArgumentException if any of the users is not in the system
+   */
+  Stream<Event> findTimes(int duration, List<String> users, List<String> eventInfo)
+          throws IllegalArgumentException;
+
+  /**
+   * Finds the time slots that fit the strategy's criteria with the highest scores, without
+   * holding every open slot at once.
+   * @param duration the duration of the scheduled events
+   * @param users the invited users
+   * @param eventInfo the event information
+   * @param count the most time slots to return
+   * @param score the score of a slot given its start as a minute of the week, where higher
+   *              is better
+   * @return the events from highest to lowest score, with ties broken by the earlier start
+   * @throws IllegalArgumentException if any of the users is not in the system or the count
+   *                                  is negative
+   */
+  List<Event> findBestTimes(int duration, List<String> users, List<String> eventInfo,
+                            int count, IntToDoubleFunction score)
+          throws IllegalArgumentException;
+
+  /**
+   * Schedules a batch of events hosted by the current user. Each event is added to the model as
+   * soon as its time is found, so later requests in the batch are placed around it.
+   * @param requests the events to schedule
+   * @param order the order the requests are placed in
+   * @return the result of each request in the same order as the requests, holding either the
+   *         placed event or the reason it could not be placed
+   */
+  List<SchedulingResult> scheduleAll(List<SchedulingRequest> requests, BatchOrder order);
+
+  /**
+   * Enum class for the orders a batch of requests can be placed in.
+   */
+  enum BatchOrder {
+    IN_ORDER, // The order the requests were given in
+    MOST_CONSTRAINED_FIRST, // Fewest open start times first
+    LONGEST_FIRST // Longest duration first
+  }
 }
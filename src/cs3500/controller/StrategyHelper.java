@@ -1,33 +1,135 @@
 package cs3500.controller;
 
 import java.time.LocalTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.Stream;
+
+import cs3500.model.DayOfWeek;
+import cs3500.model.Event;
+import cs3500.model.ICentralSystem;
+import cs3500.model.User;
 
 /**
- * Helper class for determining the end time of a scheduled event.
+ * Helper class for the shared work of the scheduling strategies.
  */
 public class StrategyHelper {
 
-  protected static Map<LocalTime, Integer> calculateEndTime(int hour, int minute, int duration) {
-    int extraDays = 0;
-    hour += duration / 60;
-    minute += duration % 60;
+  /**
+   * Finds the host and invited users of an event being scheduled. The host is the current user
+   * of the model.
+   *
+   * @param model the model the users are in
+   * @param users the IDs of the invited users
+   * @return the host followed by the invited users
+   */
+  protected static List<User> participants(ICentralSystem model, List<String> users) {
+    List<User> participants = new ArrayList<>();
+    participants.add(model.findUserById(model.currentUser()));
+    for (String userId : users) {
+      participants.add(model.findUserById(userId));
+    }
+    return participants;
+  }
 
-    if (minute >= 60) {
-      hour += minute / 60;
-      minute %= 60;
+  /**
+   * Finds the earliest start in the given windows when the host and invited users are all free
+   * for the whole duration.
+   *
+   * @param model    the model the users are in
+   * @param users    the IDs of the invited users
+   * @param windows  the inclusive ranges of allowed start minutes as low, high pairs
+   * @param duration the length of the event in minutes
+   * @param pool     the pool to search with, or null to search on the calling thread
+   * @return the earliest start minute, or -1 if there is no open slot
+   */
+  protected static int findStart(ICentralSystem model, List<String> users, int[] windows,
+                                 int duration, ForkJoinPool pool) {
+    List<User> participants = participants(model, users);
+    if (pool == null) {
+      return Availability.of(participants).findStart(windows, duration);
     }
+    return Availability.of(participants, pool).findStart(windows, duration, pool);
+  }
+
+  /**
+   * Creates the event for a time slot found by a strategy.
+   *
+   * @param model       the model the users are in
+   * @param eventInfo   the name, location, and online status of the event
+   * @param users       the IDs of the invited users
+   * @param startMinute the minute of the week the event starts
+   * @param duration    the length of the event in minutes
+   * @return the event at the given time
+   */
+  protected static Event createEvent(ICentralSystem model, List<String> eventInfo,
+                                     List<String> users, int startMinute, int duration) {
+    List<User> participants = participants(model, users);
+    return createEvent(eventInfo, participants.remove(0), participants, startMinute, duration);
+  }
 
-    if (hour >= 24) {
-      extraDays += hour / 24;
-      hour %= 24;
+  /**
+   * Lists an event for every open slot in the given windows when the host and invited users are
+   * all free for the whole duration, from earliest to latest. Slots are only searched for as the
+   * stream pulls them.
+   *
+   * @param model     the model the users are in
+   * @param eventInfo the name, location, and online status of the event
+   * @param users     the IDs of the invited users
+   * @param windows   the inclusive ranges of allowed start minutes as low, high pairs
+   * @param duration  the length of the event in minutes
+   * @return the stream of events at the open slots
+   */
+  protected static Stream<Event> findTimes(ICentralSystem model, List<String> eventInfo,
+                                           List<String> users, int[] windows, int duration) {
+    List<User> participants = participants(model, users);
+    Availability busy = Availability.of(participants);
+    User host = participants.remove(0);
+    return busy.starts(windows, duration)
+            .mapToObj(start -> createEvent(eventInfo, host, participants, start, duration));
+  }
+
+  /**
+   * Finds the events at the open slots in the given windows with the highest scores.
+   *
+   * @param model     the model the users are in
+   * @param eventInfo the name, location, and online status of the event
+   * @param users     the IDs of the invited users
+   * @param windows   the inclusive ranges of allowed start minutes as low, high pairs
+   * @param duration  the length of the event in minutes
+   * @param count     the most events to return
+   * @param score     the score of each start minute of the week, where higher is better
+   * @return the events from highest to lowest score
+   */
+  protected static List<Event> findBestTimes(ICentralSystem model, List<String> eventInfo,
+                                             List<String> users, int[] windows, int duration,
+                                             int count, IntToDoubleFunction score) {
+    List<User> participants = participants(model, users);
+    Availability busy = Availability.of(participants);
+    User host = participants.remove(0);
+    List<Event> best = new ArrayList<>();
+    for (int start : busy.bestStarts(windows, duration, count, score)) {
+      best.add(createEvent(eventInfo, host, participants, start, duration));
     }
+    return best;
+  }
 
-    LocalTime endTime = LocalTime.of(hour, minute);
+  private static Event createEvent(List<String> eventInfo, User host, List<User> invitees,
+                                   int startMinute, int duration) {
+    int endMinute = (int) ((startMinute + (long) duration) % Availability.MINUTES_PER_WEEK);
+    return new Event(eventInfo.get(0), eventInfo.get(1),
+            Boolean.parseBoolean(eventInfo.get(2)), timeOf(startMinute), timeOf(endMinute),
+            dayOf(startMinute), dayOf(endMinute), host, new ArrayList<>(invitees));
+  }
+
+  private static DayOfWeek dayOf(int minuteOfWeek) {
+    return DayOfWeek.dayOf(minuteOfWeek / Availability.MINUTES_PER_DAY + 1);
+  }
 
-    Map<LocalTime, Integer> result = new HashMap<>();
-    result.put(endTime, extraDays);
-    return result;
+  private static LocalTime timeOf(int minuteOfWeek) {
+    int minuteOfDay = minuteOfWeek % Availability.MINUTES_PER_DAY;
+    return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
   }
 }
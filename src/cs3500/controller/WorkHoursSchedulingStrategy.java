@@ -1,14 +1,13 @@
 package cs3500.controller;
 
-import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.Stream;
 
 import cs3500.model.DayOfWeek;
 import cs3500.model.Event;
 import cs3500.model.ICentralSystem;
-import cs3500.model.User;
 
 /**
  * Scheduling strategy based on availability during work hours (0900 - 1700 inclusive).
@@ -16,51 +15,87 @@ import cs3500.model.User;
 public class WorkHoursSchedulingStrategy implements SchedulingStrategy {
 
   private final ICentralSystem model;
+  private final ForkJoinPool pool; // Searches in parallel when not null
 
   /**
    * Creates the strategy with the model passed in.
    * @param model the associated model
    */
   public WorkHoursSchedulingStrategy(ICentralSystem model) {
+    this(model, null);
+  }
+
+  /**
+   * Creates the strategy with the model passed in, which searches across the threads of
+   * the given pool.
+   * @param model the associated model
+   * @param pool the pool used to search for a time, or null to search on the calling thread
+   */
+  public WorkHoursSchedulingStrategy(ICentralSystem model, ForkJoinPool pool) {
     this.model = model;
+    this.pool = pool;
   }
 
   @Override
   public Event findTime(int duration, List<String> users, List<String> eventInfo)
           throws IllegalArgumentException {
-    Event event;
     if (duration > 480) {
       throw new IllegalArgumentException("Duration is too long");
     }
-    int durationHours = (int) Math.ceil(duration / 60.0);
-    for (DayOfWeek day = DayOfWeek.MONDAY; day.getValue() <= DayOfWeek.FRIDAY.getValue();
-         day = DayOfWeek.dayOf(day.getValue() + 1)) {
-      for (int hour = 9; hour <= 17 - durationHours; hour++) {
-        for (int minute = 0; minute < 60; minute++) {
-          LocalTime startTime = LocalTime.of(hour, minute);
-
-          Map<LocalTime, Integer> end = StrategyHelper.calculateEndTime(hour, minute, duration);
-          Map.Entry<LocalTime, Integer> entry = end.entrySet().iterator().next();
+    int start = StrategyHelper.findStart(model, users, windows(duration), duration, pool);
+    if (start < 0) {
+      return null;
+    }
+    return StrategyHelper.createEvent(model, eventInfo, users, start, duration);
+  }
 
-          LocalTime endTime = entry.getKey();
-          int endDayNum = day.getValue() + entry.getValue();
-          DayOfWeek endDay = DayOfWeek.dayOf(endDayNum % 7);
+  @Override
+  public Stream<Event> findTimes(int duration, List<String> users, List<String> eventInfo)
+          throws IllegalArgumentException {
+    if (duration > 480) {
+      throw new IllegalArgumentException("Duration is too long");
+    }
+    return StrategyHelper.findTimes(model, eventInfo, users, windows(duration), duration);
+  }
 
-          User host = model.findUserById(model.currentUser());
-          List<User> userList = new ArrayList<>();
-          for (String userId : users) {
-            userList.add(model.findUserById(userId));
-          }
+  @Override
+  public List<Event> findBestTimes(int duration, List<String> users, List<String> eventInfo,
+                                   int count, IntToDoubleFunction score)
+          throws IllegalArgumentException {
+    if (duration > 480) {
+      throw new IllegalArgumentException("Duration is too long");
+    }
+    return StrategyHelper.findBestTimes(model, eventInfo, users, windows(duration), duration,
+            count, score);
+  }
 
-          event = new Event(eventInfo.get(0), eventInfo.get(1),
-                  Boolean.parseBoolean(eventInfo.get(2)), startTime, endTime,
-                  day, endDay, host, userList);
-          if (model.scheduleEvent(event, users)) {
-            return event;
-          }
-        }
+  @Override
+  public List<SchedulingResult> scheduleAll(List<SchedulingRequest> requests, BatchOrder order) {
+    return new BatchScheduler(model, duration -> {
+      if (duration > 480) {
+        throw new IllegalArgumentException("Duration is too long");
       }
+      return windows(duration);
+    }).schedule(requests, order);
+  }
+
+  /**
+   * Finds the allowed start times for an event of the given duration, which are the minutes
+   * from 0900 until the last full hour the event fits before 1700, Monday through Friday.
+   *
+   * @param duration the length of the event in minutes
+   * @return the inclusive ranges of allowed start minutes of the week as low, high pairs
+   */
+  private static int[] windows(int duration) {
+    int durationHours = (int) Math.ceil(duration / 60.0);
+    int lastHour = 17 - durationHours;
+    int days = DayOfWeek.FRIDAY.getValue() - DayOfWeek.MONDAY.getValue() + 1;
+    int[] windows = new int[days * 2];
+    for (int day = 0; day < days; day++) {
+      int dayStart = (DayOfWeek.MONDAY.getValue() - 1 + day) * Availability.MINUTES_PER_DAY;
+      windows[day * 2] = dayStart + 9 * 60;
+      windows[day * 2 + 1] = dayStart + lastHour * 60 + 59;
     }
-    return null;
+    return windows;
   }
 }
@@ -0,0 +1,398 @@
+package cs3500.model;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A planner that can be used from several threads at once. Each user's schedule, along with the
+ * events on it, is guarded by one of a fixed number of striped read-write locks picked by the
+ * user's ID, so calls on different users run in parallel and reads of the same user share it.
+ * Calls that involve several users take their stripes in ascending order, so they cannot
+ * deadlock.
+ *
+ * <p>Calls that add or remove users or events run alone, since they change the planner's
+ * directory of users and events, and so do modifyEvent, which can rename an event and change
+ * its invitees in several steps, and applyBatch. Every other call shares the directory.
+ * Called from one thread, it behaves the same as the {@link NUPlanner} it wraps, which must not
+ * be used directly afterwards. Users and events handed out are the live objects, so they should
+ * only be read through the planner while other threads are changing it, or through a snapshot,
+ * which takes no locks at all.
+ */
+public final class ConcurrentPlanner implements ICentralSystem {
+  private static final int DEFAULT_STRIPES = 64;
+
+  private final NUPlanner planner;
+  // Held shared by every call, and exclusively by calls that change the users or events maps
+  private final ReentrantReadWriteLock directory = new ReentrantReadWriteLock();
+  private final ReentrantReadWriteLock[] stripes; // Each guards the schedules hashed to it
+  // Users holding an event they are not invited to, which modifyEvent can leave behind. Only
+  // changed while the directory is held exclusively.
+  private final Map<Event, Set<User>> strays = new IdentityHashMap<>();
+  private volatile String currentUser;
+
+  /**
+   * Creates an empty planner that can be used from several threads.
+   */
+  public ConcurrentPlanner() {
+    this(new NUPlanner(), DEFAULT_STRIPES);
+  }
+
+  /**
+   * Wraps a planner so it can be used from several threads.
+   *
+   * @param planner the planner to wrap, which is not used directly afterwards
+   * @param stripes the number of locks the users' schedules are spread over
+   * @throws IllegalArgumentException if there are fewer than one stripe
+   */
+  public ConcurrentPlanner(NUPlanner planner, int stripes) throws IllegalArgumentException {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("There must be at least one stripe");
+    }
+    this.planner = planner;
+    this.stripes = new ReentrantReadWriteLock[stripes];
+    for (int stripe = 0; stripe < stripes; stripe++) {
+      this.stripes[stripe] = new ReentrantReadWriteLock();
+    }
+    this.currentUser = planner.currentUser();
+    planner.snapshot(); // Start publishing states before any other thread can make changes
+    for (User user : planner.allUsers()) {
+      for (Event event : user.userSchedule()) {
+        noteStray(user, event);
+      }
+    }
+  }
+
+  @Override
+  public String currentUser() {
+    return currentUser;
+  }
+
+  @Override
+  public void setUser(String userId) throws IllegalArgumentException {
+    if (findUserById(userId) == null) {
+      throw new IllegalArgumentException("User is not in the system");
+    }
+    currentUser = userId;
+  }
+
+  @Override
+  public User findUserById(String userId) {
+    directory.readLock().lock();
+    try {
+      return planner.findUserById(userId);
+    } finally {
+      directory.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Event findEventByName(String eventName) {
+    directory.readLock().lock();
+    try {
+      return planner.findEventByName(eventName);
+    } finally {
+      directory.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Event> findEventsByTime(String day, String time) {
+    return findEventsByTime(currentUser, day, time);
+  }
+
+  @Override
+  public List<Event> findEventsByTime(String userId, String day, String time)
+          throws IllegalArgumentException {
+    directory.readLock().lock();
+    try {
+      List<Lock> locks = lock(List.of(userId), false);
+      try {
+        return planner.findEventsByTime(userId, day, time);
+      } finally {
+        unlock(locks);
+      }
+    } finally {
+      directory.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Map<List<String>, List<String>> userSchedule(boolean allUsers) {
+    if (!allUsers) {
+      return userSchedule(currentUser);
+    }
+    directory.readLock().lock();
+    try {
+      List<User> scheduled = new ArrayList<>();
+      for (User user : planner.allUsers()) {
+        if (!user.userId().equals("admin")) {
+          scheduled.add(user);
+        }
+      }
+      // Every stripe at once, so the schedules are read as they were at one moment
+      List<Lock> locks = lockAll();
+      try {
+        return planner.userSchedule(scheduled);
+      } finally {
+        unlock(locks);
+      }
+    } finally {
+      directory.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Map<List<String>, List<String>> userSchedule(String userId)
+          throws IllegalArgumentException {
+    directory.readLock().lock();
+    try {
+      List<Lock> locks = lock(List.of(userId), false);
+      try {
+        return planner.userSchedule(userId);
+      } finally {
+        unlock(locks);
+      }
+    } finally {
+      directory.readLock().unlock();
+    }
+  }
+
+  @Override
+  public PlannerSession session(String userId) throws IllegalArgumentException {
+    return new PlannerSession(this, userId);
+  }
+
+  @Override
+  public PlannerState snapshot() {
+    return planner.snapshot(); // Published by each change under its locks, so none are needed
+  }
+
+  @Override
+  public PlannerState snapshot(String userId) {
+    return planner.snapshot(userId);
+  }
+
+  @Override
+  public List<String> findAllUsers() {
+    directory.readLock().lock();
+    try {
+      return planner.findAllUsers();
+    } finally {
+      directory.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void addUser(User userId) throws IllegalArgumentException {
+    directory.writeLock().lock();
+    try {
+      planner.addUser(userId);
+      for (Event event : userId.userSchedule()) {
+        noteStray(userId, event);
+      }
+    } finally {
+      directory.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void createEvent(String name, String location, boolean isOnline, LocalTime startTime,
+                          LocalTime endTime, DayOfWeek startDay, DayOfWeek endDay,
+                          User host, List<User> invitedUsers) throws IllegalStateException {
+    directory.writeLock().lock();
+    try {
+      planner.setUser(currentUser);
+      planner.createEvent(name, location, isOnline, startTime, endTime, startDay, endDay, host,
+              invitedUsers);
+      // The selected user gets the event even if they are not invited to it
+      noteStray(planner.findUserById(currentUser), planner.findEventByName(name));
+    } finally {
+      directory.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void addEvent(Event event) throws IllegalArgumentException {
+    directory.writeLock().lock();
+    try {
+      planner.addEvent(event);
+    } finally {
+      directory.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void modifyEvent(Event event, Map<String, String> changes) {
+    directory.writeLock().lock();
+    try {
+      planner.modifyEvent(event, changes);
+      // Users toggled off the event keep it on their schedules
+      for (String userId : changes.get("invited").trim().split("\\s+")) {
+        User user = planner.findUserById(userId);
+        if (user != null) {
+          noteStray(user, event);
+        }
+      }
+    } finally {
+      directory.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void applyBatch(List<PlannerCommand> commands) throws IllegalArgumentException {
+    directory.writeLock().lock();
+    try {
+      planner.applyBatch(commands);
+      for (PlannerCommand command : commands) {
+        String invited = command.kind() == PlannerCommand.Kind.MODIFY
+                ? command.changes().get("invited") : null;
+        if (invited == null || invited.trim().isEmpty()) {
+          continue;
+        }
+        // Users toggled off an event keep it, which may since have been renamed
+        for (String userId : invited.trim().split("\\s+")) {
+          User user = planner.findUserById(userId);
+          for (Event event : user.userSchedule()) {
+            noteStray(user, event);
+          }
+        }
+      }
+    } finally {
+      directory.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void updateEventInvited(Event event, User user) {
+    if (event == null || user == null || user.equals(event.hostInfo())) {
+      // Removing a hosted event takes it out of the directory
+      directory.writeLock().lock();
+      try {
+        planner.updateEventInvited(event, user);
+      } finally {
+        directory.writeLock().unlock();
+      }
+      return;
+    }
+    directory.readLock().lock();
+    try {
+      while (true) {
+        List<User> invitees = invitees(event);
+        List<String> userIds = new ArrayList<>();
+        userIds.add(event.hostId());
+        userIds.add(user.userId());
+        for (User invitee : invitees) {
+          userIds.add(invitee.userId());
+        }
+        for (User stray : strays.getOrDefault(event, Set.of())) {
+          userIds.add(stray.userId());
+        }
+        List<Lock> locks = lock(userIds, true);
+        try {
+          // The invitees can only change while the host's stripe is free, so check they did not
+          if (event.invitees().equals(invitees)) {
+            planner.updateEventInvited(event, user);
+            return;
+          }
+        } finally {
+          unlock(locks);
+        }
+      }
+    } finally {
+      directory.readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean scheduleEvent(Event event, List<String> users) {
+    return scheduleEvent(currentUser, event, users);
+  }
+
+  @Override
+  public boolean scheduleEvent(String userId, Event event, List<String> users)
+          throws IllegalArgumentException {
+    List<String> userIds = new ArrayList<>(users);
+    userIds.add(userId);
+    directory.readLock().lock();
+    try {
+      List<Lock> locks = lock(userIds, false);
+      try {
+        return planner.scheduleEvent(userId, event, users);
+      } finally {
+        unlock(locks);
+      }
+    } finally {
+      directory.readLock().unlock();
+    }
+  }
+
+  /**
+   * Reads the invitees of an event while its host's stripe is held, since every change to them
+   * holds it.
+   */
+  private List<User> invitees(Event event) {
+    List<Lock> locks = lock(List.of(event.hostId()), false);
+    try {
+      return event.invitees();
+    } finally {
+      unlock(locks);
+    }
+  }
+
+  /**
+   * Takes the stripes of the given users in ascending order, each once.
+   *
+   * @param userIds   the IDs of the users whose schedules are used
+   * @param exclusive whether the schedules are changed, rather than only read
+   * @return the locks taken, in the order they were taken
+   */
+  private List<Lock> lock(Collection<String> userIds, boolean exclusive) {
+    boolean[] needed = new boolean[stripes.length];
+    for (String userId : userIds) {
+      needed[Math.floorMod(userId.hashCode(), stripes.length)] = true;
+    }
+    List<Lock> locks = new ArrayList<>();
+    for (int stripe = 0; stripe < stripes.length; stripe++) {
+      if (needed[stripe]) {
+        Lock lock = exclusive ? stripes[stripe].writeLock() : stripes[stripe].readLock();
+        lock.lock();
+        locks.add(lock);
+      }
+    }
+    return locks;
+  }
+
+  private List<Lock> lockAll() {
+    List<Lock> locks = new ArrayList<>();
+    for (ReentrantReadWriteLock stripe : stripes) {
+      stripe.readLock().lock();
+      locks.add(stripe.readLock());
+    }
+    return locks;
+  }
+
+  private static void unlock(List<Lock> locks) {
+    for (int lock = locks.size() - 1; lock >= 0; lock--) {
+      locks.get(lock).unlock();
+    }
+  }
+
+  /**
+   * Remembers the user as holding the event if it is on their schedule but they are not its
+   * host or an invitee, so changes to the event also take the user's stripe.
+   */
+  private void noteStray(User user, Event event) {
+    if (event != null && user.holds(event) && !user.equals(event.hostInfo())
+            && !event.invitees().contains(user)) {
+      strays.computeIfAbsent(event, stray -> new HashSet<>()).add(user);
+    }
+  }
+}
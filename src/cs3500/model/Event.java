@@ -5,12 +5,16 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An Event object that holds information on an event taking place to be added to a schedule.
  * The information can be accessed to give the client information about the Event.
  */
 public class Event implements IEvent {
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HHmm");
+  private static final AtomicLong SERIALS = new AtomicLong();
+
   private String name;
   // Invariant: value is never null or empty
   private String location;
@@ -30,7 +34,12 @@ public class Event implements IEvent {
    */
   private final List<User> invitedUsers;
 
-  protected boolean nextWeek;
+  // The start and end as minutes since Sunday 00:00, kept in sync with the days and times
+  private int startMinute;
+  private int endMinute;
+  private boolean nextWeek; // Whether the event ends before it starts and wraps into next week
+  private List<String> info; // Read-only formatted event information, rebuilt on every update
+  private final long serial = SERIALS.getAndIncrement(); // Tells apart events with equal names
 
   /**
    * Creates an event object with all parameters initialized.
@@ -66,27 +75,83 @@ public class Event implements IEvent {
     }
 
     removeHost();
+    normalizeTimes();
+    refreshInfo();
+  }
+
+  /**
+   * Computes the minute-of-week form of the start and end, and whether the event wraps into the
+   * next week. Called whenever the days or times change.
+   */
+  private void normalizeTimes() {
+    this.startMinute = ValidateEvent.minuteOfWeek(startDay.getValue(), startTime);
+    this.endMinute = ValidateEvent.minuteOfWeek(endDay.getValue(), endTime);
+    this.nextWeek = endMinute < startMinute;
   }
 
   private void removeHost() {
     invitedUsers.removeIf(host -> host.equals(this.host));
   }
 
+  /**
+   * Rebuilds the formatted event information. Called whenever a field it shows changes, so
+   * eventInfo can hand out the same read-only list between changes.
+   */
+  private void refreshInfo() {
+    this.info = List.of(
+            name, // name
+            startDay.toString(), // start day
+            formatTime(startTime), // start time
+            endDay.toString(), // end day
+            formatTime(endTime), // end time
+            location, // location
+            String.valueOf(isOnline), // online status
+            host.userId()); // host's ID
+  }
+
   @Override
   public List<String> eventInfo() {
-    List<String> eventInfo = new ArrayList<>();
+    return info;
+  }
 
-    eventInfo.add(this.name); // name
+  /**
+   * Returns a number no other event in this run of the program has, so published states can
+   * refer to this event even when another event has the same name.
+   *
+   * @return the event's serial number
+   */
+  long serial() {
+    return serial;
+  }
 
-    eventInfo.add(startDay.toString()); // start day
-    eventInfo.add(formatTime(startTime)); // start time
-    eventInfo.add(endDay.toString()); // end day
-    eventInfo.add(formatTime(endTime)); // end time
+  /**
+   * Returns a detached copy of the event, which is on no schedule, for restoring it later.
+   *
+   * @return the copy
+   */
+  Event copy() {
+    return new Event(name, location, isOnline, startTime, endTime, startDay, endDay, host,
+            invitedUsers);
+  }
 
-    eventInfo.add(location); // location
-    eventInfo.add(String.valueOf(isOnline)); // online status
-    eventInfo.add(host.userId()); // host's ID
-    return eventInfo;
+  /**
+   * Puts every field of the event back to the values of a copy, without touching any schedule.
+   * Used to undo changes whose schedules are put back separately.
+   *
+   * @param saved the copy made before the changes
+   */
+  void restore(Event saved) {
+    this.name = saved.name;
+    this.location = saved.location;
+    this.isOnline = saved.isOnline;
+    this.startTime = saved.startTime;
+    this.endTime = saved.endTime;
+    this.startDay = saved.startDay;
+    this.endDay = saved.endDay;
+    this.invitedUsers.clear();
+    this.invitedUsers.addAll(saved.invitedUsers);
+    normalizeTimes();
+    refreshInfo();
   }
 
   @Override
@@ -115,59 +180,148 @@ public class Event implements IEvent {
     return new ArrayList<>(invitedUsers);
   }
 
+  @Override
+  public DayOfWeek startDay() {
+    return startDay;
+  }
+
+  @Override
+  public DayOfWeek endDay() {
+    return endDay;
+  }
+
+  @Override
+  public LocalTime startTime() {
+    return startTime;
+  }
+
+  @Override
+  public LocalTime endTime() {
+    return endTime;
+  }
+
+  @Override
+  public String location() {
+    return location;
+  }
+
+  @Override
+  public boolean isOnline() {
+    return isOnline;
+  }
+
+  @Override
+  public String hostId() {
+    return host.userId();
+  }
+
+  @Override
+  public int startMinute() {
+    return startMinute;
+  }
+
+  @Override
+  public int endMinute() {
+    return endMinute;
+  }
+
+  @Override
+  public boolean endsNextWeek() {
+    return nextWeek;
+  }
+
   @Override
   public boolean checkTime(LocalTime time, DayOfWeek day) {
-    int adjustedEndDay = endDay.getValue();
-    LocalTime adjustedEndTime = endTime;
-    if (startDay.getValue() > endDay.getValue()
-            || (startDay.getValue() == endDay.getValue() && startTime.compareTo(endTime) > 0)) {
-      adjustedEndDay += 7;
-      adjustedEndTime = LocalTime.of(23, 59);
-    }
+    int minute = ValidateEvent.minuteOfWeek(day.getValue(), time);
     // Checks if the given time is between the start and end times
-    return (day.getValue() >= startDay.getValue() && day.getValue() <= adjustedEndDay)
-            && (time.compareTo(startTime) > 0 && time.compareTo(adjustedEndTime) < 0);
+    if (nextWeek) {
+      return minute > startMinute || minute < endMinute;
+    }
+    return minute > startMinute && minute < endMinute;
   }
 
   @Override
   public void changeInvited(User user) {
+    loadParticipants();
+    user.load();
     if (invitedUsers.contains(user)) { // If user is on the list
       invitedUsers.remove(user);
+      user.markChanged();
     } else if (!user.equals(host)) { // If the user was not invited
       invitedUsers.add(user);
     } else { // If the user is the host
       throw new IllegalArgumentException("User is the host");
     }
+    participantsChanged();
   }
 
   @Override
   public void updateName(String newName) throws IllegalArgumentException {
+    loadParticipants();
     if (newName == null || newName.trim().isEmpty()) {
       throw new IllegalArgumentException("Invalid new name");
     }
     this.name = newName;
+    refreshInfo();
+    participantsChanged();
   }
 
   @Override
   public void updateLocation(String newLocation) throws IllegalArgumentException {
+    loadParticipants();
     if (newLocation == null || newLocation.trim().isEmpty()) {
       throw new IllegalArgumentException("Invalid new location");
     }
     this.location = newLocation;
+    refreshInfo();
+    participantsChanged();
   }
 
   @Override
   public void updateIsOnline(boolean isOnline) {
+    loadParticipants();
     this.isOnline = isOnline;
+    refreshInfo();
+    participantsChanged();
   }
 
   @Override
   public void updateStartEnd(LocalTime startTime, LocalTime endTime,
                              DayOfWeek startDay, DayOfWeek endDay) {
+    loadParticipants();
     this.startTime = startTime;
     this.endTime = endTime;
     this.startDay = startDay;
     this.endDay = endDay;
+    normalizeTimes();
+    refreshInfo();
+    // Keep the schedule indexes of everyone attending in sync with the new times
+    host.reindex(this);
+    for (User invited : invitedUsers) {
+      invited.reindex(this);
+    }
+    participantsChanged();
+  }
+
+  /**
+   * Reads the schedules of the host and invitees into memory if any are paged out, so a paged
+   * out schedule is never behind the events on it.
+   */
+  private void loadParticipants() {
+    host.load();
+    for (User invited : invitedUsers) {
+      invited.load();
+    }
+  }
+
+  /**
+   * Marks the schedules of the host and invitees as changed, since the event is on all of them.
+   */
+  private void participantsChanged() {
+    host.markChanged();
+    for (User invited : invitedUsers) {
+      invited.markChanged();
+    }
   }
 
   @Override
@@ -195,7 +349,7 @@ public class Event implements IEvent {
 
   private String formatTime(LocalTime time) {
     // Format the time into two digits for the hour and two digits for the minutes
-    return time.format(DateTimeFormatter.ofPattern("HHmm"));
+    return time.format(TIME_FORMAT);
   }
 }
 
@@ -48,11 +48,24 @@ public interface ICentralSystem extends IReadOnlyCentralSystem {
 
   /**
    * Modifies an existing event. You can modify one or multiple elements of the event without
-   * having to change the rest of the event or creating a new one.
+   * having to change the rest of the event or creating a new one. Every change is checked
+   * before any is made, so if one is invalid the event is left as it was.
    *
    * @param event the event being modified
+   * @throws IllegalArgumentException if the event is not in the system or a change is invalid
    */
-  void modifyEvent(Event event, Map<String, String> changes);
+  void modifyEvent(Event event, Map<String, String> changes) throws IllegalArgumentException;
+
+  /**
+   * Makes a batch of changes to the system as one. The commands run in order, each seeing the
+   * changes made by the ones before it, and if any of them fails the system is left as it was
+   * before the batch. The changes are published together, so snapshots see either all of them
+   * or none.
+   *
+   * @param commands the changes to make, in order
+   * @throws IllegalArgumentException if any command is invalid, in which case none are made
+   */
+  void applyBatch(List<PlannerCommand> commands) throws IllegalArgumentException;
 
   /**
    * Removes an event from a User's schedule. Removes the event entirely if the user
@@ -70,5 +83,18 @@ public interface ICentralSystem extends IReadOnlyCentralSystem {
    * @return true if there is a time block available, false otherwise
    */
   boolean scheduleEvent(Event event, List<String> users);
+
+  /**
+   * Checks if the proposed event would fit in the given user's schedule and every invited
+   * user's schedule, without reading or changing the current user.
+   *
+   * @param userId the ID of the user proposing the event
+   * @param event  the event being proposed
+   * @param users  the invited users
+   * @return true if there is a time block available, false otherwise
+   * @throws IllegalArgumentException if the proposing user is not in the system
+   */
+  boolean scheduleEvent(String userId, Event event, List<String> users)
+          throws IllegalArgumentException;
 }
 
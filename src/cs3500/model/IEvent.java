@@ -10,7 +10,9 @@ import java.util.List;
 public interface IEvent {
 
   /**
-   * Creates and returns a list of all the event information as strings.
+   * Returns a read-only list of all the event information as strings, in the order name,
+   * start day, start time, end day, end time, location, online status, and host ID.
+   * The same list is returned until the event is changed.
    *
    * @return a list of strings detailing the event information
    */
@@ -37,6 +39,77 @@ public interface IEvent {
    */
   List<LocalTime> timeInfo();
 
+  /**
+   * Returns the day the event starts.
+   *
+   * @return the start day
+   */
+  DayOfWeek startDay();
+
+  /**
+   * Returns the day the event ends.
+   *
+   * @return the end day
+   */
+  DayOfWeek endDay();
+
+  /**
+   * Returns the time of day the event starts.
+   *
+   * @return the start time
+   */
+  LocalTime startTime();
+
+  /**
+   * Returns the time of day the event ends.
+   *
+   * @return the end time
+   */
+  LocalTime endTime();
+
+  /**
+   * Returns the location of the event.
+   *
+   * @return the location
+   */
+  String location();
+
+  /**
+   * Returns whether the event is online.
+   *
+   * @return true if the event is online, false otherwise
+   */
+  boolean isOnline();
+
+  /**
+   * Returns the ID of the host of the event.
+   *
+   * @return the host's ID
+   */
+  String hostId();
+
+  /**
+   * Returns the start of the event as the number of minutes since Sunday 00:00.
+   *
+   * @return the minute of the week the event starts
+   */
+  int startMinute();
+
+  /**
+   * Returns the end of the event as the number of minutes since Sunday 00:00. This is less than
+   * the start minute if the event wraps into the next week.
+   *
+   * @return the minute of the week the event ends
+   */
+  int endMinute();
+
+  /**
+   * Checks if the event ends before it starts in the week, meaning it runs into the next week.
+   *
+   * @return true if the event wraps into the next week, false otherwise
+   */
+  boolean endsNextWeek();
+
   /**
    * Creates a copy of the invited users list for the system to use.
    *
@@ -50,6 +50,19 @@ public interface IReadOnlyCentralSystem {
    */
   List<Event> findEventsByTime(String day, String time);
 
+  /**
+   * Finds the events happening at a time on the given user's schedule. Unlike the version for
+   * the current user, it neither reads nor changes the current user.
+   *
+   * @param userId the ID of the user whose schedule is checked
+   * @param day    the day being checked
+   * @param time   the time being checked
+   * @return the events happening at the time, null if no event is happening at the given time
+   * @throws IllegalArgumentException if the user is not in the system
+   */
+  List<Event> findEventsByTime(String userId, String day, String time)
+          throws IllegalArgumentException;
+
   /**
    * Returns a list of all events that a user is involved in.
    *
@@ -59,6 +72,47 @@ public interface IReadOnlyCentralSystem {
    */
   Map<List<String>, List<String>> userSchedule(boolean allUsers);
 
+  /**
+   * Returns the events on the given user's schedule, without reading or changing the current
+   * user.
+   *
+   * @param userId the ID of the user whose schedule is read
+   * @return a map of events on the user's schedule with the event information mapped to the
+   *         list of invited users
+   * @throws IllegalArgumentException if the user is not in the system
+   */
+  Map<List<String>, List<String>> userSchedule(String userId) throws IllegalArgumentException;
+
+  /**
+   * Opens a read-only view of the system as the given user sees it. It does not depend on the
+   * current user, so any number of sessions can read the system at once.
+   *
+   * @param userId the ID of the user the session is for
+   * @return the session
+   * @throws IllegalArgumentException if the user is not in the system
+   */
+  PlannerSession session(String userId) throws IllegalArgumentException;
+
+  /**
+   * Returns an immutable view of every user and event in the system as they are now. Later
+   * changes do not show in it, so it can be read on any thread, for as long as needed, without
+   * holding up changes.
+   *
+   * @return the state of the system
+   */
+  PlannerState snapshot();
+
+  /**
+   * Returns an immutable view of the system that has at least the given user's schedule as it
+   * is now. A planner that keeps every schedule in memory returns the same view as
+   * {@link #snapshot()}, while one that pages schedules in may leave the other users out, so
+   * reading one schedule does not read them all.
+   *
+   * @param userId the ID of the user whose schedule the view must have
+   * @return the state of the system, without the user if they are not in the system
+   */
+  PlannerState snapshot(String userId);
+
   /**
    * Finds all users in the system.
    *
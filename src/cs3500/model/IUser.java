@@ -33,6 +33,23 @@ public interface IUser {
    */
   void removeEvent(Event event) throws IllegalArgumentException;
 
+  /**
+   * Checks if the given event would fit in the user's schedule without overlapping any of the
+   * events already on it.
+   *
+   * @param event the event being checked
+   * @return true if the event does not overlap any scheduled event, false otherwise
+   */
+  boolean isFree(Event event);
+
+  /**
+   * Returns a number that changes whenever anything in the user's saved schedule would change,
+   * including the details of events they are part of. Used to save only the users who changed.
+   *
+   * @return the current version of the user's schedule
+   */
+  long version();
+
   /**
    * Finds an event by its name within the user's schedule.
    *
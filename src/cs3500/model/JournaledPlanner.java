@@ -0,0 +1,463 @@
+package cs3500.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A planner that records every change in a journal, so each change costs a write the size of
+ * the change instead of rewriting every schedule, and changes made since the last save survive
+ * a crash. The planner is rebuilt on startup from the last snapshot plus the journal.
+ *
+ * <p>Only changes that succeed are recorded, after they are made. Reads go straight to the
+ * underlying planner.
+ */
+public final class JournaledPlanner implements ICentralSystem, AutoCloseable {
+  private static final byte ADD_USER = 1;
+  private static final byte CREATE_EVENT = 2;
+  private static final byte ADD_EVENT = 3;
+  private static final byte MODIFY_EVENT = 4;
+  private static final byte UPDATE_INVITED = 5;
+  private static final byte BATCH = 6;
+
+  private final NUPlanner planner;
+  private final PlannerJournal journal;
+  private final Path snapshotFile;
+
+  private JournaledPlanner(NUPlanner planner, PlannerJournal journal, Path snapshotFile) {
+    this.planner = planner;
+    this.journal = journal;
+    this.snapshotFile = snapshotFile;
+  }
+
+  /**
+   * Opens a planner from its last snapshot, if there is one, and replays the changes in the
+   * journal made after it.
+   *
+   * @param snapshotFile    the snapshot the planner starts from and checkpoints to
+   * @param journalFile     the journal the changes are recorded in
+   * @param syncEvery       the number of changes written and synced to disk together, where 1
+   *                        syncs each change before it returns
+   * @param syncDelayMillis the longest a change waits to be synced when fewer than syncEvery are
+   *                        waiting, or 0 to wait for a full batch or a call to sync
+   * @return the planner
+   * @throws IOException              if the snapshot or journal could not be read
+   * @throws IllegalArgumentException if syncEvery is less than one or the delay is negative
+   */
+  public static JournaledPlanner open(Path snapshotFile, Path journalFile, int syncEvery,
+                                      long syncDelayMillis)
+          throws IOException, IllegalArgumentException {
+    NUPlanner planner;
+    long checkpoint;
+    if (Files.exists(snapshotFile)) {
+      planner = PlannerSnapshot.load(snapshotFile);
+      checkpoint = PlannerSnapshot.checkpoint(snapshotFile);
+    } else {
+      planner = new NUPlanner();
+      checkpoint = 0;
+    }
+    Replay replay = new Replay(planner);
+    PlannerJournal journal = PlannerJournal.open(journalFile, checkpoint, syncEvery,
+            syncDelayMillis, replay::apply);
+    return new JournaledPlanner(planner, journal, snapshotFile);
+  }
+
+  /**
+   * Saves a snapshot of the planner that includes every change so far, then empties the
+   * journal. A crash at any point leaves a snapshot and journal that rebuild the same planner.
+   *
+   * @throws IOException if the snapshot could not be written or the journal emptied
+   */
+  public void checkpoint() throws IOException {
+    journal.sync();
+    PlannerSnapshot.save(planner, snapshotFile, journal.lastSequence());
+    journal.truncate();
+  }
+
+  /**
+   * Writes and syncs every change not yet on disk.
+   *
+   * @throws IOException if the changes could not be written
+   */
+  public void sync() throws IOException {
+    journal.sync();
+  }
+
+  @Override
+  public void close() throws IOException {
+    journal.close();
+  }
+
+  @Override
+  public void addUser(User userId) throws IllegalArgumentException {
+    // The user's events are added along with them, so record them as they are beforehand
+    Record record = new Record();
+    record.string(userId.userId());
+    List<Event> schedule = userId.userSchedule();
+    record.integer(schedule.size());
+    for (Event event : schedule) {
+      record.event(event);
+    }
+    planner.addUser(userId);
+    append(ADD_USER, record);
+  }
+
+  @Override
+  public void createEvent(String name, String location, boolean isOnline, LocalTime startTime,
+                          LocalTime endTime, DayOfWeek startDay, DayOfWeek endDay, User host,
+                          List<User> invitedUsers) throws IllegalStateException {
+    planner.createEvent(name, location, isOnline, startTime, endTime, startDay, endDay, host,
+            invitedUsers);
+    Record record = new Record();
+    record.string(planner.currentUser());
+    record.event(findEventByName(name));
+    append(CREATE_EVENT, record);
+  }
+
+  @Override
+  public void addEvent(Event event) throws IllegalArgumentException {
+    planner.addEvent(event);
+    Record record = new Record();
+    record.event(event);
+    append(ADD_EVENT, record);
+  }
+
+  @Override
+  public void modifyEvent(Event event, Map<String, String> changes) {
+    Record record = new Record();
+    if (event != null) {
+      record.string(event.toString()); // The name before any rename
+      record.integer(changes.size());
+      for (Map.Entry<String, String> change : changes.entrySet()) {
+        record.string(change.getKey());
+        record.nullableString(change.getValue());
+      }
+    }
+    planner.modifyEvent(event, changes);
+    append(MODIFY_EVENT, record);
+  }
+
+  @Override
+  public void applyBatch(List<PlannerCommand> commands) throws IllegalArgumentException {
+    planner.applyBatch(commands);
+    // One record for the whole batch, so a crash replays all of it or none of it
+    Record record = new Record();
+    record.integer(commands.size());
+    for (PlannerCommand command : commands) {
+      record.command(command);
+    }
+    append(BATCH, record);
+  }
+
+  @Override
+  public void updateEventInvited(Event event, User user) {
+    planner.updateEventInvited(event, user);
+    Record record = new Record();
+    record.string(event.toString());
+    record.string(user.userId());
+    append(UPDATE_INVITED, record);
+  }
+
+  @Override
+  public boolean scheduleEvent(Event event, List<String> users) {
+    return planner.scheduleEvent(event, users);
+  }
+
+  @Override
+  public boolean scheduleEvent(String userId, Event event, List<String> users)
+          throws IllegalArgumentException {
+    return planner.scheduleEvent(userId, event, users);
+  }
+
+  @Override
+  public String currentUser() {
+    return planner.currentUser();
+  }
+
+  @Override
+  public void setUser(String userId) {
+    planner.setUser(userId);
+  }
+
+  @Override
+  public User findUserById(String userId) {
+    return planner.findUserById(userId);
+  }
+
+  @Override
+  public Event findEventByName(String eventName) {
+    return planner.findEventByName(eventName);
+  }
+
+  @Override
+  public List<Event> findEventsByTime(String day, String time) {
+    return planner.findEventsByTime(day, time);
+  }
+
+  @Override
+  public List<Event> findEventsByTime(String userId, String day, String time)
+          throws IllegalArgumentException {
+    return planner.findEventsByTime(userId, day, time);
+  }
+
+  @Override
+  public Map<List<String>, List<String>> userSchedule(boolean allUsers) {
+    return planner.userSchedule(allUsers);
+  }
+
+  @Override
+  public Map<List<String>, List<String>> userSchedule(String userId)
+          throws IllegalArgumentException {
+    return planner.userSchedule(userId);
+  }
+
+  @Override
+  public PlannerSession session(String userId) throws IllegalArgumentException {
+    return new PlannerSession(this, userId);
+  }
+
+  @Override
+  public PlannerState snapshot() {
+    return planner.snapshot();
+  }
+
+  @Override
+  public PlannerState snapshot(String userId) {
+    return planner.snapshot(userId);
+  }
+
+  @Override
+  public List<String> findAllUsers() {
+    return planner.findAllUsers();
+  }
+
+  private void append(byte type, Record record) throws IllegalStateException {
+    try {
+      journal.append(type, record.bytes.toByteArray());
+    } catch (IOException ex) {
+      throw new IllegalStateException("The change was made but could not be journaled", ex);
+    }
+  }
+
+  /**
+   * The payload of a journal record being built. Users are written by ID and events by name, or
+   * in full when they are being created.
+   */
+  private static final class Record {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    // Written the same way DataOutputStream would, so DataInputStream reads them back
+    private void integer(int value) {
+      bytes.write(value >>> 24);
+      bytes.write(value >>> 16);
+      bytes.write(value >>> 8);
+      bytes.write(value);
+    }
+
+    private void bool(boolean value) {
+      bytes.write(value ? 1 : 0);
+    }
+
+    private void string(String value) {
+      byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+      integer(encoded.length);
+      bytes.write(encoded, 0, encoded.length);
+    }
+
+    private void nullableString(String value) {
+      bool(value != null);
+      if (value != null) {
+        string(value);
+      }
+    }
+
+    private void event(Event event) {
+      List<String> info = event.eventInfo();
+      string(info.get(0));
+      string(event.location());
+      bool(event.isOnline());
+      integer(event.startTime().getHour() * 60 + event.startTime().getMinute());
+      integer(event.endTime().getHour() * 60 + event.endTime().getMinute());
+      integer(event.startDay().getValue());
+      integer(event.endDay().getValue());
+      string(event.hostId());
+      integer(event.invitees().size());
+      for (User invitee : event.invitees()) {
+        string(invitee.userId());
+      }
+    }
+
+    private void command(PlannerCommand command) {
+      bytes.write(command.kind().ordinal());
+      string(command.eventName());
+      switch (command.kind()) {
+        case CREATE:
+          string(command.userId());
+          string(command.location());
+          bool(command.isOnline());
+          integer(command.startTime().getHour() * 60 + command.startTime().getMinute());
+          integer(command.endTime().getHour() * 60 + command.endTime().getMinute());
+          integer(command.startDay().getValue());
+          integer(command.endDay().getValue());
+          integer(command.invitees().size());
+          for (String inviteeId : command.invitees()) {
+            string(inviteeId);
+          }
+          break;
+        case MODIFY:
+          integer(command.changes().size());
+          for (Map.Entry<String, String> change : command.changes().entrySet()) {
+            string(change.getKey());
+            nullableString(change.getValue());
+          }
+          break;
+        default:
+          string(command.userId());
+      }
+    }
+  }
+
+  /**
+   * Applies journal records to a planner on startup. Users who were never added to the planner
+   * are created once per ID, so every event they are part of shares the same user.
+   */
+  private static final class Replay {
+    private final NUPlanner planner;
+    private final Map<String, User> strays = new HashMap<>();
+
+    private Replay(NUPlanner planner) {
+      this.planner = planner;
+    }
+
+    private void apply(byte type, DataInputStream in) throws IOException {
+      try {
+        applyChange(type, in);
+      } catch (IllegalArgumentException | IllegalStateException ex) {
+        // The change succeeded when it was recorded, so the journal does not match the snapshot
+        throw new IOException("Could not replay a journaled change: " + ex.getMessage(), ex);
+      }
+    }
+
+    private void applyChange(byte type, DataInputStream in) throws IOException {
+      switch (type) {
+        case ADD_USER:
+          addUser(in);
+          break;
+        case CREATE_EVENT:
+          planner.setUser(string(in));
+          Event created = event(in);
+          planner.createEvent(created.toString(), created.location(), created.isOnline(),
+                  created.startTime(), created.endTime(), created.startDay(), created.endDay(),
+                  created.hostInfo(), created.invitees());
+          break;
+        case ADD_EVENT:
+          planner.addEvent(event(in));
+          break;
+        case MODIFY_EVENT:
+          Event modified = planner.findEventByName(string(in));
+          Map<String, String> changes = new LinkedHashMap<>();
+          for (int count = in.readInt(); count > 0; count--) {
+            changes.put(string(in), in.readBoolean() ? string(in) : null);
+          }
+          planner.modifyEvent(modified, changes);
+          break;
+        case UPDATE_INVITED:
+          Event updated = planner.findEventByName(string(in));
+          planner.updateEventInvited(updated, user(string(in)));
+          break;
+        case BATCH:
+          List<PlannerCommand> commands = new ArrayList<>();
+          for (int count = in.readInt(); count > 0; count--) {
+            commands.add(command(in));
+          }
+          planner.applyBatch(commands);
+          break;
+        default:
+          throw new IOException("Unknown journal record type: " + type);
+      }
+    }
+
+    private void addUser(DataInputStream in) throws IOException {
+      User added = new User(string(in));
+      strays.put(added.userId(), added); // So the user's own events refer to them
+      for (int count = in.readInt(); count > 0; count--) {
+        Event event = event(in);
+        Event existing = planner.findEventByName(event.toString());
+        // An event already in the planner was shared with the user, not a copy of it
+        if (existing != null && existing.eventInfo().equals(event.eventInfo())) {
+          event = existing;
+        }
+        added.restoreEvent(event);
+      }
+      strays.remove(added.userId());
+      planner.addUser(added);
+    }
+
+    private PlannerCommand command(DataInputStream in) throws IOException {
+      PlannerCommand.Kind kind = PlannerCommand.Kind.values()[in.readUnsignedByte()];
+      String eventName = string(in);
+      switch (kind) {
+        case CREATE:
+          String hostId = string(in);
+          String location = string(in);
+          boolean isOnline = in.readBoolean();
+          int startTime = in.readInt();
+          int endTime = in.readInt();
+          DayOfWeek startDay = DayOfWeek.dayOf(in.readInt());
+          DayOfWeek endDay = DayOfWeek.dayOf(in.readInt());
+          List<String> invitees = new ArrayList<>();
+          for (int count = in.readInt(); count > 0; count--) {
+            invitees.add(string(in));
+          }
+          return PlannerCommand.create(hostId, eventName, location, isOnline,
+                  LocalTime.of(startTime / 60, startTime % 60),
+                  LocalTime.of(endTime / 60, endTime % 60), startDay, endDay, invitees);
+        case MODIFY:
+          Map<String, String> changes = new LinkedHashMap<>();
+          for (int count = in.readInt(); count > 0; count--) {
+            changes.put(string(in), in.readBoolean() ? string(in) : null);
+          }
+          return PlannerCommand.modify(eventName, changes);
+        default:
+          return PlannerCommand.remove(eventName, string(in));
+      }
+    }
+
+    private Event event(DataInputStream in) throws IOException {
+      String name = string(in);
+      String location = string(in);
+      boolean isOnline = in.readBoolean();
+      int startTime = in.readInt();
+      int endTime = in.readInt();
+      DayOfWeek startDay = DayOfWeek.dayOf(in.readInt());
+      DayOfWeek endDay = DayOfWeek.dayOf(in.readInt());
+      User host = user(string(in));
+      List<User> invitees = new ArrayList<>();
+      for (int count = in.readInt(); count > 0; count--) {
+        invitees.add(user(string(in)));
+      }
+      return new Event(name, location, isOnline, LocalTime.of(startTime / 60, startTime % 60),
+              LocalTime.of(endTime / 60, endTime % 60), startDay, endDay, host, invitees);
+    }
+
+    private User user(String userId) {
+      User user = planner.findUserById(userId);
+      return user != null ? user : strays.computeIfAbsent(userId, User::new);
+    }
+
+    private static String string(DataInputStream in) throws IOException {
+      byte[] encoded = new byte[in.readInt()];
+      in.readFully(encoded);
+      return new String(encoded, StandardCharsets.UTF_8);
+    }
+  }
+}
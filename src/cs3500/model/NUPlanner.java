@@ -4,10 +4,17 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import cs3500.controller.FileOperations;
@@ -18,10 +25,14 @@ import cs3500.controller.FileOperations;
 public class NUPlanner implements ICentralSystem {
   private final Map<String, User> users; // A map of all users and their associated ID's
   // Invariant: value is never empty
-  private final List<Event> events; // A list of all events in the system
-  // Invariant: value never contains overlapping events
+  private final Map<String, Event> events; // All events in the system keyed by their name
+  // Invariant: value never contains overlapping events, and every key is its event's name
   private String currentUser; // The user whose schedule is currently being viewed
   // Invariant: value is never null
+  // The latest published state, or null until the first snapshot is taken
+  private final AtomicReference<PlannerState> state = new AtomicReference<>();
+  // Invariant: if not null, value matches the users, their schedules, and the events
+  private Batch batch; // The batch being applied, whose changes are not published yet
 
   /**
    * Creates a NUPlanner system with an empty map of users and list of events.
@@ -29,7 +40,7 @@ public class NUPlanner implements ICentralSystem {
    */
   public NUPlanner() {
     this.users = new LinkedHashMap<>();
-    this.events = new ArrayList<>();
+    this.events = new LinkedHashMap<>();
     User adminUser = new User("admin");
     this.currentUser = "admin"; // Admin is the default "user"
     users.put("admin", adminUser); // The default user represents the state where no schedule
@@ -43,7 +54,7 @@ public class NUPlanner implements ICentralSystem {
    */
   public NUPlanner(String filePath) {
     this.users = new LinkedHashMap<>();
-    this.events = new ArrayList<>();
+    this.events = new LinkedHashMap<>();
     User adminUser = new User("admin");
     this.currentUser = "admin";
     users.put("admin", adminUser);
@@ -55,6 +66,38 @@ public class NUPlanner implements ICentralSystem {
     }
   }
 
+  /**
+   * Creates a model from users and events that were saved together, such as by a snapshot.
+   * Nothing is checked, so the users and events must already be consistent with each other.
+   *
+   * @param users       the users keyed by their ID, including the admin user
+   * @param events      the events keyed by their name
+   * @param currentUser the ID of the selected user
+   */
+  NUPlanner(Map<String, User> users, Map<String, Event> events, String currentUser) {
+    this.users = users;
+    this.events = events;
+    this.currentUser = currentUser;
+  }
+
+  /**
+   * Returns every user in the system, including the admin user, in the order they were added.
+   *
+   * @return the users
+   */
+  Collection<User> allUsers() {
+    return Collections.unmodifiableCollection(users.values());
+  }
+
+  /**
+   * Returns every event in the system in the order they were added.
+   *
+   * @return the events
+   */
+  Collection<Event> allEvents() {
+    return Collections.unmodifiableCollection(events.values());
+  }
+
   @Override
   public void setUser(String userId) throws IllegalArgumentException {
     User newUser = users.get(userId); // Check if the user is in the database
@@ -71,7 +114,7 @@ public class NUPlanner implements ICentralSystem {
   public void addUser(User userId) throws IllegalArgumentException {
     if (findUserById(userId.userId()) == null) { // If the user does not exist in the system
       users.put(userId.userId(), userId); // Put the new user in the users database
-      for (Event event : events) {
+      for (Event event : events.values()) {
         if (event.invitees().contains(userId)) { // If the user is invited to the event
           try {
             userId.addEvent(event); // Add event to the user's schedule
@@ -91,6 +134,7 @@ public class NUPlanner implements ICentralSystem {
         }
       }
       setUser(tempUser.userId());
+      userChanged(userId);
     } else {
       throw new IllegalArgumentException("User already exists in the system.");
     }
@@ -108,31 +152,31 @@ public class NUPlanner implements ICentralSystem {
 
   @Override
   public Event findEventByName(String eventName) {
-    for (Event event : events) {
-      if (event.toString().equals(eventName)) {
-        return event;
-      }
-    }
-    return null;
+    return events.get(eventName); // Null if the event is not in the system
   }
 
   @Override
   public List<Event> findEventsByTime(String day, String time) {
+    return findEventsByTime(currentUser, day, time);
+  }
+
+  @Override
+  public List<Event> findEventsByTime(String userId, String day, String time)
+          throws IllegalArgumentException {
+    User user = requireUser(userId);
     // Format the time String
     LocalTime checkTime = LocalTime.parse(time, DateTimeFormatter.ofPattern("HHmm"));
     // Convert the day String into a DayOfWeek constant
     DayOfWeek checkDay = DayOfWeek.valueOf(day.toUpperCase().trim());
-    return findUserById(currentUser).checkTime(checkDay, checkTime);
+    return user.checkTime(checkDay, checkTime);
   }
 
   @Override
   public void addEvent(Event event) throws IllegalArgumentException {
-    for (Event scheduled : events) {
-      if (event.equals(scheduled)) { // Check if the name matches any existing events
-        throw new IllegalArgumentException("Event already exists in system");
-      }
+    if (events.containsKey(event.toString())) { // Check if the name matches any existing events
+      throw new IllegalArgumentException("Event already exists in system");
     }
-    events.add(event);
+    events.put(event.toString(), event);
     try {
       event.hostInfo().addEvent(event);
     } catch (IllegalArgumentException ex) {
@@ -145,13 +189,19 @@ public class NUPlanner implements ICentralSystem {
         // Do nothing, event already added
       }
     }
+    publish(participants(event), event, event.toString());
   }
 
   @Override
   public void modifyEvent(Event event, Map<String, String> change) {
-    if (!events.contains(event)) {
+    if (event == null || !events.containsKey(event.toString())) {
       throw new IllegalArgumentException("Event does not exist");
     }
+    String newName = change.get("name");
+    if (newName != null && !newName.equals(event.toString()) && events.containsKey(newName)) {
+      // Renaming onto another event's name would make the names ambiguous
+      throw new IllegalArgumentException("Event already exists in system");
+    }
     if (!change.get("online").equalsIgnoreCase("false")
             && !change.get("online").equalsIgnoreCase("true")) {
       // If the new value isn't exactly true or false, throw an exception
@@ -163,94 +213,293 @@ public class NUPlanner implements ICentralSystem {
     } else {
       updatedUsers = change.get("invited").split("\\s+");
     }
-    temporaryInvitee(event, updatedUsers);
+    // Every check is made against the event as it is, so a failed modify changes nothing
+    Modification modification = propose(event, updatedUsers, change);
+    String oldName = event.toString();
+    commit(event, modification);
+    // Users toggled off the event have not had their schedules changed, but are marked
+    List<User> changed = participants(event);
+    changed.addAll(modification.toggled);
+    publish(changed, event, oldName, event.toString());
+  }
+
+  /**
+   * The changes to an event, checked and ready to be made.
+   */
+  private static final class Modification {
+    private final List<User> toggled = new ArrayList<>(); // In the order they are toggled
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private DayOfWeek startDay;
+    private DayOfWeek endDay;
+    private String name;
+    private String location;
+    private boolean isOnline;
+  }
+
+  /**
+   * Checks a modification of an event without changing anything. The event's new times must
+   * not fall inside another event on the schedule of its host or any of its invitees after the
+   * toggles.
+   *
+   * @param event        the event being modified
+   * @param updatedUsers the IDs of the users whose invitations are toggled
+   * @param change       the new values of the event
+   * @return the checked modification
+   * @throws IllegalArgumentException if any of the changes is invalid
+   */
+  private Modification propose(Event event, String[] updatedUsers, Map<String, String> change)
+          throws IllegalArgumentException {
+    Modification modification = new Modification();
+    List<User> invitees = event.invitees();
+    for (String userId : updatedUsers) {
+      User user = findUserById(userId);
+      // The same toggles Event.changeInvited makes, on a copy of the invitees
+      if (invitees.contains(user)) {
+        invitees.remove(user);
+      } else if (!user.equals(event.hostInfo())) {
+        invitees.add(user);
+      } else {
+        throw new IllegalArgumentException("User is the host");
+      }
+      modification.toggled.add(user);
+    }
 
     try {
-      temporaryTimes(event, change);
-    } catch (IllegalArgumentException ex) {
-      temporaryInvitee(event, updatedUsers);
+      modification.startTime = LocalTime.parse(change.get("start-time"),
+              DateTimeFormatter.ofPattern("HHmm"));
+      modification.endTime = LocalTime.parse(change.get("end-time"),
+              DateTimeFormatter.ofPattern("HHmm"));
+      modification.startDay = DayOfWeek.valueOf(change.get("start").toUpperCase());
+      modification.endDay = DayOfWeek.valueOf(change.get("end").toUpperCase());
+    } catch (DateTimeParseException | IllegalArgumentException ex) {
       throw new IllegalArgumentException("Invalid changes to the event");
     }
+    List<User> attending = new ArrayList<>();
+    attending.add(event.hostInfo());
+    attending.addAll(invitees);
+    for (User user : attending) {
+      if (busyAt(user, event, modification.startDay, modification.startTime)
+              || busyAt(user, event, modification.endDay, modification.endTime)) {
+        throw new IllegalArgumentException("Invalid changes to the event");
+      }
+    }
 
-    // All checks passed
-    applyChanges(event, change);
+    modification.name = change.get("name");
+    if (modification.name == null || modification.name.trim().isEmpty()) {
+      throw new IllegalArgumentException("Invalid new name");
+    }
+    modification.location = change.get("location");
+    if (modification.location == null || modification.location.trim().isEmpty()) {
+      throw new IllegalArgumentException("Invalid new location");
+    }
+    modification.isOnline = Boolean.parseBoolean(change.get("online").toLowerCase());
+    return modification;
   }
 
-  private void applyChanges(Event event, Map<String, String> change) {
-    event.updateName(change.get("name"));
-    event.updateLocation(change.get("location"));
-    event.updateIsOnline(Boolean.parseBoolean(change.get("online").toLowerCase()));
+  /**
+   * Checks if an event other than the given one is happening at a time on a user's schedule.
+   * The given event is still at its old times, so it is left out.
+   */
+  private static boolean busyAt(User user, Event event, DayOfWeek day, LocalTime time) {
+    List<Event> happening = user.checkTime(day, time);
+    if (happening != null) {
+      for (Event other : happening) {
+        if (other != event) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
-  private void temporaryInvitee(Event event, String[] updatedUsers) {
-    for (String userId : updatedUsers) {
-      event.changeInvited(findUserById(userId));
+  /**
+   * Makes a checked modification to an event, all at once. None of it can fail.
+   */
+  private void commit(Event event, Modification modification) {
+    for (User user : modification.toggled) {
+      event.changeInvited(user);
     }
+    event.updateStartEnd(modification.startTime, modification.endTime, modification.startDay,
+            modification.endDay);
+    String oldName = event.toString();
+    event.updateName(modification.name);
+    if (!oldName.equals(event.toString())) {
+      rename(oldName, event);
+    }
+    event.updateLocation(modification.location);
+    event.updateIsOnline(modification.isOnline);
   }
 
-  private void temporaryTimes(Event event, Map<String, String> change) {
-    List<LocalTime> oldTimes = event.timeInfo();
-    List<Integer> oldDays = event.dayInfo();
-    LocalTime newStartTime;
-    LocalTime newEndTime;
-
-    try {
-      newStartTime = LocalTime.parse(change.get("start-time"),
-              DateTimeFormatter.ofPattern("HHmm"));
-      newEndTime = LocalTime.parse(change.get("end-time"),
-              DateTimeFormatter.ofPattern("HHmm"));
-    } catch (DateTimeParseException ex) {
-      throw new IllegalArgumentException("Invalid new time");
-    }
-    DayOfWeek newStartDay = DayOfWeek.valueOf(change.get("start").toUpperCase());
-    DayOfWeek newEndDay = DayOfWeek.valueOf(change.get("end").toUpperCase());
-
-    event.updateStartEnd(newStartTime, newEndTime, newStartDay, newEndDay);
-    if (event.hostInfo().checkTime(newStartDay, newStartTime) != null
-            || event.hostInfo().checkTime(newEndDay, newEndTime) != null) {
-      event.updateStartEnd(oldTimes.get(0), oldTimes.get(1),
-              DayOfWeek.dayOf(oldDays.get(0)), DayOfWeek.dayOf(oldDays.get(1)));
-      throw new IllegalArgumentException("Invalid new time");
-    }
-    for (User user : event.invitees()) {
-      if (user.checkTime(newStartDay, newStartTime) != null
-              || user.checkTime(newEndDay, newEndTime) != null) {
-        event.updateStartEnd(oldTimes.get(0), oldTimes.get(1),
-                DayOfWeek.dayOf(oldDays.get(0)), DayOfWeek.dayOf(oldDays.get(1)));
-        throw new IllegalArgumentException("Invalid new time");
+  /**
+   * Re-keys a renamed event under its new name at the same place in the directory, so renaming
+   * does not change the order events are listed in. The events after it are put back behind it,
+   * which takes time linear in their number. A directory that keeps no order, such as the one
+   * of a planner that pages schedules out, is only re-keyed.
+   */
+  private void rename(String oldName, Event event) {
+    if (!(events instanceof LinkedHashMap)) {
+      events.remove(oldName);
+      events.put(event.toString(), event);
+      return;
+    }
+    Map<String, Event> after = new LinkedHashMap<>();
+    boolean found = false;
+    Iterator<Map.Entry<String, Event>> entries = events.entrySet().iterator();
+    while (entries.hasNext()) {
+      Map.Entry<String, Event> entry = entries.next();
+      if (found) {
+        after.put(entry.getKey(), entry.getValue());
+        entries.remove();
+      } else if (entry.getKey().equals(oldName)) {
+        found = true;
+        entries.remove();
       }
     }
+    events.put(event.toString(), event);
+    events.putAll(after);
   }
 
   @Override
   public void updateEventInvited(Event event, User user) {
-    if (!events.contains(event)) {
+    if (event == null || !events.containsKey(event.toString())) {
       throw new IllegalArgumentException("Event does not exist in the system");
     }
-    if (user.equals(event.hostInfo())) { // If the user is the host
-      events.remove(event); // Remove the event entirely
-      user.removeEvent(event);
-      for (User invited : event.invitees()) {
-        invited.removeEvent(event); // Remove all invited users too
+    try {
+      if (user.equals(event.hostInfo())) { // If the user is the host
+        events.remove(event.toString()); // Remove the event entirely
+        user.removeEvent(event);
+        for (User invited : event.invitees()) {
+          invited.removeEvent(event); // Remove all invited users too
+        }
+      } else if (event.invitees().contains(user)) { // If the user is just an invitee
+        event.changeInvited(user); // Remove the user from the invited list
+        user.removeEvent(event); // Remove the event from the user's schedule
+      } else {
+        event.changeInvited(user); // Add the user to the event and the event to their schedule
+        user.addEvent(event);
       }
-    } else if (event.invitees().contains(user)) { // If the user is just an invitee
-      event.changeInvited(user); // Remove the user from the invited list
-      user.removeEvent(event); // Remove the event from the user's schedule
-    } else {
-      event.changeInvited(user); // Add the user to the event and the event to the user's schedule
-      user.addEvent(event);
+    } finally {
+      List<User> changed = participants(event);
+      changed.add(user);
+      publish(changed, event, event.toString());
+    }
+  }
+
+  @Override
+  public void applyBatch(List<PlannerCommand> commands) throws IllegalArgumentException {
+    Batch applying = new Batch();
+    String selected = currentUser;
+    batch = applying;
+    try {
+      for (int index = 0; index < commands.size(); index++) {
+        try {
+          apply(commands.get(index), applying.undo);
+        } catch (RuntimeException ex) {
+          applying.undo.undo(events);
+          if (ex instanceof IllegalArgumentException || ex instanceof IllegalStateException) {
+            throw new IllegalArgumentException("Command " + (index + 1) + " failed: "
+                    + ex.getMessage(), ex);
+          }
+          throw ex;
+        }
+      }
+    } finally {
+      batch = null;
+      currentUser = selected;
+    }
+    publish(applying.users, applying.events, applying.names);
+  }
+
+  /**
+   * The changes a batch has made so far, published together once every command has succeeded.
+   */
+  private static final class Batch {
+    private final UndoLog undo = new UndoLog();
+    private final Set<User> users = new LinkedHashSet<>();
+    private final Set<Event> events = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<String> names = new LinkedHashSet<>();
+  }
+
+  /**
+   * Makes one command of a batch, after saving everything it can change so the batch can be
+   * undone.
+   *
+   * @param command the command to make
+   * @param undo    the log of what the batch has changed
+   * @throws IllegalArgumentException if the command is invalid
+   */
+  private void apply(PlannerCommand command, UndoLog undo) throws IllegalArgumentException {
+    switch (command.kind()) {
+      case CREATE:
+        User host = requireUser(command.userId());
+        List<User> invitees = new ArrayList<>();
+        for (String inviteeId : command.invitees()) {
+          invitees.add(requireUser(inviteeId));
+        }
+        undo.saveSchedule(host);
+        for (User invitee : invitees) {
+          undo.saveSchedule(invitee);
+        }
+        undo.saveName(command.eventName(), events);
+        currentUser = host.userId(); // Created for the host, as if they were selected
+        createEvent(command.eventName(), command.location(), command.isOnline(),
+                command.startTime(), command.endTime(), command.startDay(), command.endDay(),
+                host, invitees);
+        break;
+      case MODIFY:
+        Event modified = requireEvent(command.eventName());
+        Map<String, String> changes = command.changes();
+        undo.saveEvent(modified);
+        for (User participant : participants(modified)) {
+          undo.saveSchedule(participant);
+        }
+        String invited = changes.get("invited");
+        if (invited != null && !invited.trim().isEmpty()) {
+          for (String invitedId : invited.trim().split("\\s+")) {
+            undo.saveSchedule(requireUser(invitedId));
+          }
+        }
+        undo.saveName(modified.toString(), events);
+        if (changes.get("name") != null) {
+          undo.saveName(changes.get("name"), events);
+        }
+        modifyEvent(modified, changes);
+        break;
+      case REMOVE:
+        Event removed = requireEvent(command.eventName());
+        User user = requireUser(command.userId());
+        if (!user.equals(removed.hostInfo()) && !removed.invitees().contains(user)) {
+          // Otherwise updateEventInvited would invite them
+          throw new IllegalArgumentException("User is not attending the event");
+        }
+        undo.saveEvent(removed);
+        for (User participant : participants(removed)) {
+          undo.saveSchedule(participant);
+        }
+        undo.saveName(removed.toString(), events);
+        updateEventInvited(removed, user);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown command: " + command.kind());
     }
   }
 
   @Override
   public boolean scheduleEvent(Event event, List<String> users) {
-    User temp = findUserById(currentUser);
-    if (!ValidateEvent.validEvent(event, temp.userSchedule())) {
+    return scheduleEvent(currentUser, event, users);
+  }
+
+  @Override
+  public boolean scheduleEvent(String userId, Event event, List<String> users)
+          throws IllegalArgumentException {
+    User temp = requireUser(userId);
+    if (!temp.isFree(event)) {
       return false;
     }
-    for (String userId : users) {
-      temp = findUserById(userId);
-      if (!ValidateEvent.validEvent(event, temp.userSchedule())) {
+    for (String invitedId : users) {
+      temp = findUserById(invitedId);
+      if (!temp.isFree(event)) {
         return false;
       }
     }
@@ -266,18 +515,70 @@ public class NUPlanner implements ICentralSystem {
 
   @Override
   public Map<List<String>, List<String>> userSchedule(boolean allUsers) {
-    Map<List<String>, List<String>> userEvents = new LinkedHashMap<>();
-    if (allUsers) { // Case for getting all users' schedules
-      for (User user : users.values()) {
-        if (!user.userId().equals("admin")) {
-          currentUser = user.userId();
-          scheduleHelper(findUserById(currentUser), userEvents);
-        }
+    if (!allUsers) {
+      return userSchedule(currentUser); // Get just one user's schedule
+    }
+    // Case for getting all users' schedules
+    List<User> scheduled = new ArrayList<>();
+    for (User user : users.values()) {
+      if (!user.userId().equals("admin")) {
+        scheduled.add(user);
       }
-    } else {
-      scheduleHelper(findUserById(currentUser), userEvents); // Get just one user's schedule
     }
-    // Return a sorted-by-time version of the map
+    return userSchedule(scheduled);
+  }
+
+  @Override
+  public Map<List<String>, List<String>> userSchedule(String userId)
+          throws IllegalArgumentException {
+    return userSchedule(List.of(requireUser(userId)));
+  }
+
+  @Override
+  public PlannerSession session(String userId) throws IllegalArgumentException {
+    return new PlannerSession(this, userId);
+  }
+
+  private User requireUser(String userId) throws IllegalArgumentException {
+    User user = users.get(userId);
+    if (user == null) {
+      throw new IllegalArgumentException("User is not in the system");
+    }
+    return user;
+  }
+
+  private Event requireEvent(String eventName) throws IllegalArgumentException {
+    Event event = events.get(eventName);
+    if (event == null) {
+      throw new IllegalArgumentException("Event does not exist in the system");
+    }
+    return event;
+  }
+
+  /**
+   * Returns the events on the given users' schedules, where an event on several of them is
+   * listed once.
+   *
+   * @param scheduled the users whose schedules are read
+   * @return a map of the events sorted by start time, with the event information mapped to the
+   *         list of invited users
+   */
+  Map<List<String>, List<String>> userSchedule(List<User> scheduled) {
+    Map<List<String>, List<String>> userEvents = new LinkedHashMap<>();
+    for (User user : scheduled) {
+      scheduleHelper(user, userEvents);
+    }
+    return sortByStart(userEvents);
+  }
+
+  /**
+   * Sorts the events of a schedule map by their start time, keeping events that start together
+   * in the order they were added.
+   *
+   * @param userEvents the event information mapped to the list of invited users
+   * @return a sorted-by-time version of the map
+   */
+  static Map<List<String>, List<String>> sortByStart(Map<List<String>, List<String>> userEvents) {
     return userEvents.entrySet()
             .stream()
             .sorted(Map.Entry.comparingByKey(Comparator.comparing(
@@ -308,11 +609,96 @@ public class NUPlanner implements ICentralSystem {
           // Already in their schedule
         }
       }
+      userChanged(current);
     } else { // For when the client has not yet selected a user from the GUI dropdown menu
       throw new IllegalStateException("Please select a user to create an event for");
     }
   }
 
+  @Override
+  public PlannerState snapshot() {
+    PlannerState current = state.get();
+    if (current == null) { // Build the first state, which every change keeps up to date after
+      PlannerState built = PlannerState.EMPTY;
+      for (User user : users.values()) {
+        built = built.withUser(user);
+      }
+      for (Map.Entry<String, Event> named : events.entrySet()) {
+        built = built.withName(named.getKey(), named.getValue());
+      }
+      state.compareAndSet(null, built);
+      current = state.get();
+    }
+    return current;
+  }
+
+  @Override
+  public PlannerState snapshot(String userId) {
+    return snapshot(); // Every schedule is already in the state
+  }
+
+  /**
+   * Publishes a change to a user's schedule made outside the planner's own methods, such as by
+   * a planner that wraps this one.
+   *
+   * @param user the user whose schedule changed
+   */
+  void userChanged(User user) {
+    publish(List.of(user), null);
+  }
+
+  /**
+   * Brings the published state up to date with a change, if snapshots are being taken. Only
+   * users in the system are published, as they are in the users map.
+   *
+   * @param changed the users whose schedules or events changed, where null is skipped
+   * @param event   the event that changed, or null if none did
+   * @param names   the names in the directory that may now refer to a different event
+   */
+  private void publish(Collection<User> changed, Event event, String... names) {
+    publish(changed, event == null ? List.of() : List.of(event), List.of(names));
+  }
+
+  /**
+   * Brings the published state up to date with a change to any number of events. Changes made
+   * while a batch is being applied are collected and published once the batch succeeds.
+   */
+  private void publish(Collection<User> changed, Collection<Event> changedEvents,
+                       Collection<String> names) {
+    if (state.get() == null) {
+      return;
+    }
+    if (batch != null) { // Held back until the whole batch has succeeded
+      batch.users.addAll(changed);
+      batch.events.addAll(changedEvents);
+      batch.names.addAll(names);
+      return;
+    }
+    // Only reads the changed users and events, which no other change can be touching
+    state.updateAndGet(current -> {
+      PlannerState next = current;
+      for (Event event : changedEvents) {
+        next = next.withEvent(event);
+      }
+      for (String name : names) {
+        next = next.withName(name, events.get(name));
+      }
+      for (User user : changed) {
+        User listed = user == null ? null : users.get(user.userId());
+        if (listed != null) {
+          next = next.withUser(listed);
+        }
+      }
+      return next;
+    });
+  }
+
+  private static List<User> participants(Event event) {
+    List<User> participants = event.invitees();
+    participants.add(event.hostInfo());
+    return participants;
+  }
+
   /**
    * Helper method for getting the schedule info for a certain user.
    *
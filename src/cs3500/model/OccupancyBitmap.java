@@ -0,0 +1,103 @@
+package cs3500.model;
+
+/**
+ * A bitmap with one bit for every minute of the week, where a set bit means the user is busy
+ * during that minute. Range checks and updates work a 64-minute word at a time.
+ */
+class OccupancyBitmap {
+  private static final int WORDS = (ValidateEvent.MINUTES_PER_WEEK + 63) / 64;
+
+  private final long[] words = new long[WORDS];
+
+  /**
+   * Returns a copy of the bitmap that can change without affecting this one.
+   *
+   * @return the copy
+   */
+  OccupancyBitmap copy() {
+    OccupancyBitmap copy = new OccupancyBitmap();
+    System.arraycopy(words, 0, copy.words, 0, WORDS);
+    return copy;
+  }
+
+  /**
+   * Marks every minute in the half-open range [start, end) as busy.
+   *
+   * @param start the first minute of the range
+   * @param end   the minute after the last minute of the range
+   */
+  void set(int start, int end) {
+    apply(start, end, true);
+  }
+
+  /**
+   * Marks every minute in the half-open range [start, end) as free.
+   *
+   * @param start the first minute of the range
+   * @param end   the minute after the last minute of the range
+   */
+  void clear(int start, int end) {
+    apply(start, end, false);
+  }
+
+  /**
+   * Checks if a minute of the week is busy.
+   *
+   * @param minute the minute of the week
+   * @return true if the minute is busy, false otherwise
+   */
+  boolean isBusy(int minute) {
+    return (words[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Checks if every minute in the half-open range [start, end) is free.
+   *
+   * @param start the first minute of the range
+   * @param end   the minute after the last minute of the range
+   * @return true if no minute in the range is busy, false otherwise
+   */
+  boolean isFree(int start, int end) {
+    if (start >= end) {
+      return true;
+    }
+    int first = start >>> 6;
+    int last = (end - 1) >>> 6;
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> (63 - ((end - 1) & 63));
+    if (first == last) {
+      return (words[first] & firstMask & lastMask) == 0;
+    }
+    if ((words[first] & firstMask) != 0 || (words[last] & lastMask) != 0) {
+      return false;
+    }
+    for (int word = first + 1; word < last; word++) {
+      if (words[word] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void apply(int start, int end, boolean busy) {
+    if (start >= end) {
+      return;
+    }
+    int first = start >>> 6;
+    int last = (end - 1) >>> 6;
+    for (int word = first; word <= last; word++) {
+      long mask = -1L;
+      if (word == first) {
+        mask &= -1L << start;
+      }
+      if (word == last) {
+        mask &= -1L >>> (63 - ((end - 1) & 63));
+      }
+      if (busy) {
+        words[word] |= mask;
+      } else {
+        words[word] &= ~mask;
+      }
+    }
+  }
+}
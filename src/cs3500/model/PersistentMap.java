@@ -0,0 +1,208 @@
+package cs3500.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable sorted map where every change returns a new map. The new map shares every node
+ * with the old one except those on the path to the changed key, so a change copies O(log n)
+ * nodes and old versions stay valid for as long as they are held. Built as an AVL tree.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class PersistentMap<K extends Comparable<K>, V> {
+  private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null);
+
+  /**
+   * A node of the tree. Never changed once built.
+   */
+  private static final class Node<K, V> {
+    private final K key;
+    private final V value;
+    private final Node<K, V> left;
+    private final Node<K, V> right;
+    private final int height;
+    private final int size; // The number of nodes in this subtree
+
+    private Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+    }
+  }
+
+  private final Node<K, V> root;
+
+  private PersistentMap(Node<K, V> root) {
+    this.root = root;
+  }
+
+  /**
+   * Returns the map with no entries.
+   *
+   * @param <K> the type of the keys
+   * @param <V> the type of the values
+   * @return the empty map
+   */
+  @SuppressWarnings("unchecked")
+  static <K extends Comparable<K>, V> PersistentMap<K, V> empty() {
+    return (PersistentMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Finds the value of a key.
+   *
+   * @param key the key being looked up
+   * @return the value, or null if the key is not in the map
+   */
+  V get(K key) {
+    Node<K, V> node = root;
+    while (node != null) {
+      int order = key.compareTo(node.key);
+      if (order == 0) {
+        return node.value;
+      }
+      node = order < 0 ? node.left : node.right;
+    }
+    return null;
+  }
+
+  /**
+   * Returns a map with the key set to the value, and every other entry the same as this one.
+   *
+   * @param key   the key being set
+   * @param value the new value of the key
+   * @return the new map, or this map if the key already had the value
+   */
+  PersistentMap<K, V> put(K key, V value) {
+    Node<K, V> changed = put(root, key, value);
+    return changed == root ? this : new PersistentMap<>(changed);
+  }
+
+  /**
+   * Returns a map without the key, and every other entry the same as this one.
+   *
+   * @param key the key being removed
+   * @return the new map, or this map if the key was not in it
+   */
+  PersistentMap<K, V> remove(K key) {
+    Node<K, V> changed = remove(root, key);
+    return changed == root ? this : new PersistentMap<>(changed);
+  }
+
+  /**
+   * Returns the number of entries in the map.
+   *
+   * @return the number of entries
+   */
+  int size() {
+    return size(root);
+  }
+
+  /**
+   * Returns the values of the map in the order of their keys.
+   *
+   * @return the values
+   */
+  List<V> values() {
+    List<V> values = new ArrayList<>(size());
+    values(root, values);
+    return values;
+  }
+
+  private static <K extends Comparable<K>, V> Node<K, V> put(Node<K, V> node, K key, V value) {
+    if (node == null) {
+      return new Node<>(key, value, null, null);
+    }
+    int order = key.compareTo(node.key);
+    if (order < 0) {
+      Node<K, V> left = put(node.left, key, value);
+      return left == node.left ? node : balance(node.key, node.value, left, node.right);
+    }
+    if (order > 0) {
+      Node<K, V> right = put(node.right, key, value);
+      return right == node.right ? node : balance(node.key, node.value, node.left, right);
+    }
+    return value == node.value ? node : new Node<>(key, value, node.left, node.right);
+  }
+
+  private static <K extends Comparable<K>, V> Node<K, V> remove(Node<K, V> node, K key) {
+    if (node == null) {
+      return null;
+    }
+    int order = key.compareTo(node.key);
+    if (order < 0) {
+      Node<K, V> left = remove(node.left, key);
+      return left == node.left ? node : balance(node.key, node.value, left, node.right);
+    }
+    if (order > 0) {
+      Node<K, V> right = remove(node.right, key);
+      return right == node.right ? node : balance(node.key, node.value, node.left, right);
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    // Replace the node with the smallest node of its right subtree
+    Node<K, V> successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.key, successor.value, node.left, removeFirst(node.right));
+  }
+
+  private static <K, V> Node<K, V> removeFirst(Node<K, V> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node.key, node.value, removeFirst(node.left), node.right);
+  }
+
+  /**
+   * Builds a node from its entry and subtrees, rotating once or twice if the subtrees differ in
+   * height by two.
+   */
+  private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+    if (height(left) > height(right) + 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node<>(left.key, left.value, left.left,
+                new Node<>(key, value, left.right, right));
+      }
+      return new Node<>(left.right.key, left.right.value,
+              new Node<>(left.key, left.value, left.left, left.right.left),
+              new Node<>(key, value, left.right.right, right));
+    }
+    if (height(right) > height(left) + 1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node<>(right.key, right.value,
+                new Node<>(key, value, left, right.left), right.right);
+      }
+      return new Node<>(right.left.key, right.left.value,
+              new Node<>(key, value, left, right.left.left),
+              new Node<>(right.key, right.value, right.left.right, right.right));
+    }
+    return new Node<>(key, value, left, right);
+  }
+
+  private static <K, V> void values(Node<K, V> node, List<V> values) {
+    if (node != null) {
+      values(node.left, values);
+      values.add(node.value);
+      values(node.right, values);
+    }
+  }
+
+  private static int height(Node<?, ?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static int size(Node<?, ?> node) {
+    return node == null ? 0 : node.size;
+  }
+}
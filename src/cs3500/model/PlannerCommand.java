@@ -0,0 +1,208 @@
+package cs3500.model;
+
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One change in a batch given to {@link ICentralSystem#applyBatch(List)}. Events are given by
+ * name and users by ID, so a command can refer to an event created or renamed by an earlier
+ * command in the same batch.
+ */
+public final class PlannerCommand {
+
+  /**
+   * The kinds of change a command can make.
+   */
+  public enum Kind { CREATE, MODIFY, REMOVE }
+
+  private final Kind kind;
+  private final String eventName;
+  private final String userId; // The host of a created event, or the user being removed
+  private final Map<String, String> changes; // Null unless modifying
+  // The rest are only set when creating
+  private final String location;
+  private final boolean isOnline;
+  private final LocalTime startTime;
+  private final LocalTime endTime;
+  private final DayOfWeek startDay;
+  private final DayOfWeek endDay;
+  private final List<String> invitees;
+
+  private PlannerCommand(Kind kind, String eventName, String userId, Map<String, String> changes,
+                         String location, boolean isOnline, LocalTime startTime,
+                         LocalTime endTime, DayOfWeek startDay, DayOfWeek endDay,
+                         List<String> invitees) {
+    this.kind = kind;
+    this.eventName = Objects.requireNonNull(eventName, "Event name cannot be null");
+    this.userId = userId;
+    this.changes = changes;
+    this.location = location;
+    this.isOnline = isOnline;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.startDay = startDay;
+    this.endDay = endDay;
+    this.invitees = invitees;
+  }
+
+  /**
+   * Creates a command that creates an event, the same way
+   * {@link ICentralSystem#createEvent} does when the host is the selected user.
+   *
+   * @param hostId    the ID of the host, who must be in the system
+   * @param name      name of the event
+   * @param location  location of the event
+   * @param isOnline  whether the event is online or not
+   * @param startTime start time of the event
+   * @param endTime   end time of the event
+   * @param startDay  start day of the event
+   * @param endDay    end day of the event
+   * @param invitees  the IDs of the invited users, who must be in the system
+   * @return the command
+   */
+  public static PlannerCommand create(String hostId, String name, String location,
+                                      boolean isOnline, LocalTime startTime, LocalTime endTime,
+                                      DayOfWeek startDay, DayOfWeek endDay,
+                                      List<String> invitees) {
+    return new PlannerCommand(Kind.CREATE, name,
+            Objects.requireNonNull(hostId, "Host cannot be null"), null,
+            Objects.requireNonNull(location, "Location cannot be null"), isOnline,
+            Objects.requireNonNull(startTime, "Start time cannot be null"),
+            Objects.requireNonNull(endTime, "End time cannot be null"),
+            Objects.requireNonNull(startDay, "Start day cannot be null"),
+            Objects.requireNonNull(endDay, "End day cannot be null"),
+            List.copyOf(Objects.requireNonNull(invitees, "Invitees cannot be null")));
+  }
+
+  /**
+   * Creates a command that modifies an event, the same way {@link ICentralSystem#modifyEvent}
+   * does.
+   *
+   * @param eventName the name of the event when the command runs
+   * @param changes   the new values of the event, with the same keys modifyEvent takes
+   * @return the command
+   */
+  public static PlannerCommand modify(String eventName, Map<String, String> changes) {
+    return new PlannerCommand(Kind.MODIFY, eventName, null,
+            Collections.unmodifiableMap(new HashMap<>(
+                    Objects.requireNonNull(changes, "Changes cannot be null"))),
+            null, false, null, null, null, null, null);
+  }
+
+  /**
+   * Creates a command that removes a user from an event, or removes the whole event if the
+   * user is its host.
+   *
+   * @param eventName the name of the event when the command runs
+   * @param userId    the ID of the host or an invitee of the event
+   * @return the command
+   */
+  public static PlannerCommand remove(String eventName, String userId) {
+    return new PlannerCommand(Kind.REMOVE, eventName,
+            Objects.requireNonNull(userId, "User cannot be null"), null,
+            null, false, null, null, null, null, null);
+  }
+
+  /**
+   * Returns the kind of change the command makes.
+   *
+   * @return the kind
+   */
+  public Kind kind() {
+    return kind;
+  }
+
+  /**
+   * Returns the name of the event being created, modified, or removed.
+   *
+   * @return the event's name
+   */
+  public String eventName() {
+    return eventName;
+  }
+
+  /**
+   * Returns the host of the event being created, or the user being removed from an event.
+   *
+   * @return the user's ID, or null if the command modifies an event
+   */
+  public String userId() {
+    return userId;
+  }
+
+  /**
+   * Returns the new values of the event being modified.
+   *
+   * @return the changes, or null if the command does not modify an event
+   */
+  public Map<String, String> changes() {
+    return changes;
+  }
+
+  /**
+   * Returns the location of the event being created.
+   *
+   * @return the location, or null if the command does not create an event
+   */
+  public String location() {
+    return location;
+  }
+
+  /**
+   * Returns whether the event being created is online.
+   *
+   * @return true if the event is online, false otherwise or if the command does not create one
+   */
+  public boolean isOnline() {
+    return isOnline;
+  }
+
+  /**
+   * Returns the start time of the event being created.
+   *
+   * @return the start time, or null if the command does not create an event
+   */
+  public LocalTime startTime() {
+    return startTime;
+  }
+
+  /**
+   * Returns the end time of the event being created.
+   *
+   * @return the end time, or null if the command does not create an event
+   */
+  public LocalTime endTime() {
+    return endTime;
+  }
+
+  /**
+   * Returns the start day of the event being created.
+   *
+   * @return the start day, or null if the command does not create an event
+   */
+  public DayOfWeek startDay() {
+    return startDay;
+  }
+
+  /**
+   * Returns the end day of the event being created.
+   *
+   * @return the end day, or null if the command does not create an event
+   */
+  public DayOfWeek endDay() {
+    return endDay;
+  }
+
+  /**
+   * Returns the IDs of the users invited to the event being created.
+   *
+   * @return the invitees' IDs, or null if the command does not create an event
+   */
+  public List<String> invitees() {
+    return invitees;
+  }
+}
@@ -0,0 +1,225 @@
+package cs3500.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the changes made to a planner since its last snapshot. Records are
+ * collected in memory and written and synced to disk together, once enough of them build up or
+ * a delay passes, so many changes share the cost of one sync.
+ *
+ * <p>Each record is its payload length, a sequence number, a type, the payload, and a CRC32 of
+ * everything after the length. A crash can leave a partly written record at the end of the
+ * file, which is dropped when the journal is opened again.
+ */
+final class PlannerJournal implements AutoCloseable {
+  private static final int RECORD_OVERHEAD = Integer.BYTES + Long.BYTES + 1 + Integer.BYTES;
+
+  /**
+   * Applies a record read back from the journal.
+   */
+  interface Replayer {
+
+    /**
+     * Applies one record.
+     *
+     * @param type    the type of the record
+     * @param payload the payload of the record
+     * @throws IOException if the payload cannot be read
+     */
+    void apply(byte type, DataInputStream payload) throws IOException;
+  }
+
+  private final FileChannel channel;
+  private final int syncEvery;
+  private final long syncDelayMillis;
+  private final ScheduledExecutorService timer; // Null if records are only synced in batches
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private int pendingRecords;
+  private boolean syncScheduled;
+  private long lastSequence;
+  private IOException timerFailure; // Set if a timed sync failed, reported on the next append
+
+  private PlannerJournal(FileChannel channel, int syncEvery, long syncDelayMillis,
+                         long lastSequence) {
+    this.channel = channel;
+    this.syncEvery = syncEvery;
+    this.syncDelayMillis = syncDelayMillis;
+    this.lastSequence = lastSequence;
+    if (syncEvery > 1 && syncDelayMillis > 0) {
+      this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "journal-sync");
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.timer = null;
+    }
+  }
+
+  /**
+   * Opens a journal, replaying every complete record after the checkpoint before any new
+   * records can be appended.
+   *
+   * @param file            the journal file, which is created if it does not exist
+   * @param checkpoint      the sequence number of the last record already in the snapshot
+   * @param syncEvery       the number of records written and synced together, where 1 syncs
+   *                        every record before the change returns
+   * @param syncDelayMillis the longest a record waits to be synced when fewer than syncEvery
+   *                        are waiting, or 0 to wait for a full batch or an explicit sync
+   * @param replayer        applies the records being replayed
+   * @return the open journal
+   * @throws IOException              if the journal could not be read or opened
+   * @throws IllegalArgumentException if syncEvery is less than one or the delay is negative
+   */
+  static PlannerJournal open(Path file, long checkpoint, int syncEvery, long syncDelayMillis,
+                             Replayer replayer) throws IOException, IllegalArgumentException {
+    if (syncEvery < 1 || syncDelayMillis < 0) {
+      throw new IllegalArgumentException("Invalid sync settings");
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      // Read rather than mapped, since a mapped file cannot be truncated on every platform
+      ByteBuffer in = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+      while (in.hasRemaining() && channel.read(in) >= 0) {
+        // Keep reading until the whole journal is in memory
+      }
+      in.flip();
+      long lastSequence = checkpoint;
+      int validEnd = 0;
+      while (in.remaining() >= RECORD_OVERHEAD) {
+        int start = in.position();
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining() - RECORD_OVERHEAD + Integer.BYTES) {
+          break; // The length itself was torn
+        }
+        long sequence = in.getLong();
+        byte type = in.get();
+        byte[] payload = new byte[length];
+        in.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(in.duplicate().position(start + Integer.BYTES)
+                .limit(start + Integer.BYTES + Long.BYTES + 1 + length));
+        if (in.getInt() != (int) crc.getValue()) {
+          break; // The record was only partly written
+        }
+        if (sequence > checkpoint) {
+          replayer.apply(type, new DataInputStream(new ByteArrayInputStream(payload)));
+        }
+        lastSequence = Math.max(lastSequence, sequence);
+        validEnd = in.position();
+      }
+      // Drop anything after the last complete record so new records follow it
+      channel.truncate(validEnd);
+      channel.position(validEnd);
+      return new PlannerJournal(channel, syncEvery, syncDelayMillis, lastSequence);
+    } catch (IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Adds a record to the journal. It is written and synced once syncEvery records are waiting,
+   * once the sync delay passes, or on the next call to sync, whichever is first.
+   *
+   * @param type    the type of the record
+   * @param payload the payload of the record
+   * @throws IOException if the record or an earlier timed sync could not be written
+   */
+  synchronized void append(byte type, byte[] payload) throws IOException {
+    if (timerFailure != null) {
+      IOException failure = timerFailure;
+      timerFailure = null;
+      throw failure;
+    }
+    ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+    record.putInt(payload.length).putLong(++lastSequence).put(type).put(payload);
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), Integer.BYTES, Long.BYTES + 1 + payload.length);
+    record.putInt((int) crc.getValue());
+    pending.write(record.array(), 0, record.capacity());
+    pendingRecords++;
+    if (pendingRecords >= syncEvery) {
+      flush();
+    } else if (timer != null && !syncScheduled) {
+      syncScheduled = true;
+      timer.schedule(this::timedSync, syncDelayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Writes and syncs every waiting record.
+   *
+   * @throws IOException if the records could not be written
+   */
+  synchronized void sync() throws IOException {
+    flush();
+  }
+
+  /**
+   * Returns the sequence number of the last record appended or replayed.
+   *
+   * @return the sequence number
+   */
+  synchronized long lastSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * Empties the journal once a snapshot includes every record in it. Sequence numbers carry on
+   * from where they were.
+   *
+   * @throws IOException if the journal could not be emptied
+   */
+  synchronized void truncate() throws IOException {
+    flush();
+    channel.truncate(0);
+    channel.force(true);
+  }
+
+  private synchronized void timedSync() {
+    syncScheduled = false;
+    try {
+      flush();
+    } catch (IOException ex) {
+      timerFailure = ex;
+    }
+  }
+
+  private void flush() throws IOException {
+    if (pendingRecords == 0) {
+      return;
+    }
+    ByteBuffer batch = ByteBuffer.wrap(pending.toByteArray());
+    while (batch.hasRemaining()) {
+      channel.write(batch);
+    }
+    channel.force(false);
+    pending.reset();
+    pendingRecords = 0;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      if (timer != null) {
+        timer.shutdownNow();
+      }
+      channel.close();
+    }
+  }
+}
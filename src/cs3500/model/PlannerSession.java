@@ -0,0 +1,69 @@
+package cs3500.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only view of a planner as one user sees it. Every query is for the session's user
+ * instead of the planner's current user, so sessions never read or change shared state and any
+ * number of them can read the planner in parallel.
+ */
+public final class PlannerSession {
+  private final IReadOnlyCentralSystem system;
+  private final String userId;
+  // Invariant: value is the ID of a user in the system
+
+  /**
+   * Opens a session on a planner for one of its users.
+   *
+   * @param system the planner being read
+   * @param userId the ID of the user the session is for
+   * @throws IllegalArgumentException if the user is not in the system
+   */
+  PlannerSession(IReadOnlyCentralSystem system, String userId) throws IllegalArgumentException {
+    if (system.findUserById(userId) == null) {
+      throw new IllegalArgumentException("User is not in the system");
+    }
+    this.system = system;
+    this.userId = userId;
+  }
+
+  /**
+   * Returns the ID of the user the session is for.
+   *
+   * @return the user's ID
+   */
+  public String userId() {
+    return userId;
+  }
+
+  /**
+   * Returns the user the session is for.
+   *
+   * @return the user
+   */
+  public User user() {
+    return system.findUserById(userId);
+  }
+
+  /**
+   * Finds the events happening at a time on the user's schedule.
+   *
+   * @param day  the day being checked
+   * @param time the time being checked
+   * @return the events happening at the time, null if no event is happening at the given time
+   */
+  public List<Event> findEventsByTime(String day, String time) {
+    return system.findEventsByTime(userId, day, time);
+  }
+
+  /**
+   * Returns the events on the user's schedule.
+   *
+   * @return a map of events on the user's schedule with the event information mapped to the
+   *         list of invited users
+   */
+  public Map<List<String>, List<String>> userSchedule() {
+    return system.userSchedule(userId);
+  }
+}
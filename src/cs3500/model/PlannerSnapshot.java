@@ -0,0 +1,367 @@
+package cs3500.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves and loads a whole planner as a compact binary snapshot, which loads much faster than
+ * reading every user's XML file. XML is still the format for sharing schedules.
+ *
+ * <p>A snapshot is written big-endian in this order: a header, the position in the journal it
+ * includes, a table of every distinct string,
+ * the selected user, fixed-width user records, fixed-width event records, the invitee array, the
+ * schedule array, and the events registered in the planner. Records refer to strings, users,
+ * and events by their position, and to ranges of the arrays by offset and count.
+ */
+public final class PlannerSnapshot {
+  private static final int MAGIC = 0x4E555053; // "NUPS"
+  private static final int VERSION = 2; // Version 1 had no checkpoint
+  private static final int REGISTERED = 1; // Flag for users that were added to the planner
+
+  private PlannerSnapshot() {
+  }
+
+  /**
+   * Writes a snapshot of the planner to a file. The snapshot is written to a temporary file
+   * that replaces the target only once it is complete, so the target always holds either the
+   * old snapshot or the new one.
+   *
+   * @param planner the planner being saved
+   * @param file    the file the snapshot is written to
+   * @throws IOException if the snapshot could not be written
+   */
+  public static void save(NUPlanner planner, Path file) throws IOException {
+    save(planner, file, 0);
+  }
+
+  /**
+   * Writes a snapshot of the planner that includes every journal record up to the given
+   * sequence number, the same way {@link #save(NUPlanner, Path)} does.
+   *
+   * @param planner    the planner being saved
+   * @param file       the file the snapshot is written to
+   * @param checkpoint the sequence number of the last journal record applied to the planner
+   * @throws IOException if the snapshot could not be written
+   */
+  static void save(NUPlanner planner, Path file, long checkpoint) throws IOException {
+    Path target = file.toAbsolutePath();
+    Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        new SnapshotWriter(planner).write(out, checkpoint);
+        out.flush();
+        channel.force(true);
+      }
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Loads a planner from a snapshot file, which is mapped into memory rather than read.
+   *
+   * @param file the snapshot file
+   * @return the planner as it was saved
+   * @throws IOException if the file could not be read or is not a valid snapshot
+   */
+  public static NUPlanner load(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } catch (BufferUnderflowException ex) {
+      throw new IOException("Snapshot is truncated: " + file);
+    } catch (IndexOutOfBoundsException | IllegalArgumentException | DateTimeException ex) {
+      throw new IOException("Snapshot is corrupt: " + file);
+    }
+  }
+
+  /**
+   * Reads the sequence number of the last journal record included in a snapshot.
+   *
+   * @param file the snapshot file
+   * @return the sequence number, or 0 if the snapshot includes no journal records
+   * @throws IOException if the file could not be read or is not a valid snapshot
+   */
+  static long checkpoint(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2 + Long.BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // Keep reading until the header is full or the file ends
+      }
+      header.flip();
+      return readHeader(header);
+    } catch (BufferUnderflowException ex) {
+      throw new IOException("Snapshot is truncated: " + file);
+    }
+  }
+
+  /**
+   * Checks the header of a snapshot and reads its checkpoint.
+   */
+  private static long readHeader(ByteBuffer in) throws IOException {
+    if (in.getInt() != MAGIC) {
+      throw new IOException("Not a planner snapshot");
+    }
+    int version = in.getInt();
+    if (version == 1) {
+      return 0;
+    }
+    if (version != VERSION) {
+      throw new IOException("Unsupported snapshot version: " + version);
+    }
+    return in.getLong();
+  }
+
+  private static NUPlanner read(ByteBuffer in) throws IOException {
+    readHeader(in);
+    String[] strings = new String[count(in, Integer.BYTES)];
+    for (int index = 0; index < strings.length; index++) {
+      byte[] bytes = new byte[count(in, 1)];
+      in.get(bytes);
+      strings[index] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    String currentUser = strings[in.getInt()];
+
+    User[] users = new User[count(in, Integer.BYTES * 4)];
+    int[] userFlags = new int[users.length];
+    int[] scheduleRanges = new int[users.length * 2];
+    for (int index = 0; index < users.length; index++) {
+      users[index] = new User(strings[in.getInt()]);
+      userFlags[index] = in.getInt();
+      scheduleRanges[index * 2] = in.getInt();
+      scheduleRanges[index * 2 + 1] = in.getInt();
+    }
+
+    // The event records come before the invitee array they point into, so read them first
+    int eventCount = count(in, SnapshotWriter.EVENT_RECORD_SIZE);
+    ByteBuffer eventRecords = in.slice();
+    in.position(in.position() + eventCount * SnapshotWriter.EVENT_RECORD_SIZE);
+    int[] invitees = readInts(in);
+    Event[] events = new Event[eventCount];
+    for (int index = 0; index < events.length; index++) {
+      events[index] = readEvent(eventRecords, strings, users, invitees);
+    }
+
+    int[] schedules = readInts(in);
+    for (int index = 0; index < users.length; index++) {
+      int offset = scheduleRanges[index * 2];
+      for (int entry = 0; entry < scheduleRanges[index * 2 + 1]; entry++) {
+        users[index].restoreEvent(events[schedules[offset + entry]]);
+      }
+    }
+
+    Map<String, User> registeredUsers = new LinkedHashMap<>();
+    for (int index = 0; index < users.length; index++) {
+      if ((userFlags[index] & REGISTERED) != 0) {
+        registeredUsers.put(users[index].userId(), users[index]);
+      }
+    }
+    Map<String, Event> registeredEvents = new LinkedHashMap<>();
+    for (int event : readInts(in)) {
+      registeredEvents.put(events[event].toString(), events[event]);
+    }
+    return new NUPlanner(registeredUsers, registeredEvents, currentUser);
+  }
+
+  /**
+   * Reads the number of entries that follow, checking that they can fit in what is left of the
+   * snapshot before anything is allocated for them.
+   *
+   * @param in        the snapshot being read
+   * @param entrySize the fewest bytes each entry takes
+   * @return the number of entries
+   * @throws IllegalArgumentException if the count is negative or too large, which load reports
+   *                                  as a corrupt snapshot
+   */
+  private static int count(ByteBuffer in, int entrySize) throws IllegalArgumentException {
+    int count = in.getInt();
+    if (count < 0 || (long) count * entrySize > in.remaining()) {
+      throw new IllegalArgumentException("Invalid count: " + count);
+    }
+    return count;
+  }
+
+  private static Event readEvent(ByteBuffer record, String[] strings, User[] users,
+                                 int[] invitees) {
+    String name = strings[record.getInt()];
+    String location = strings[record.getInt()];
+    User host = users[record.getInt()];
+    int startTime = record.getShort();
+    int endTime = record.getShort();
+    DayOfWeek startDay = DayOfWeek.dayOf(record.get());
+    DayOfWeek endDay = DayOfWeek.dayOf(record.get());
+    boolean isOnline = record.get() != 0;
+    record.get(); // Padding
+    int offset = record.getInt();
+    List<User> invited = new ArrayList<>();
+    for (int count = record.getInt(); count > 0; count--) {
+      invited.add(users[invitees[offset++]]);
+    }
+    return new Event(name, location, isOnline, LocalTime.of(startTime / 60, startTime % 60),
+            LocalTime.of(endTime / 60, endTime % 60), startDay, endDay, host, invited);
+  }
+
+  private static int[] readInts(ByteBuffer in) {
+    int[] values = new int[count(in, Integer.BYTES)];
+    in.asIntBuffer().get(values);
+    in.position(in.position() + values.length * Integer.BYTES);
+    return values;
+  }
+
+  /**
+   * Numbers every string, user, and event reachable from a planner and writes them out.
+   */
+  private static final class SnapshotWriter {
+    private static final int EVENT_RECORD_SIZE = 28;
+
+    private final NUPlanner planner;
+    private final Map<String, Integer> strings = new HashMap<>(); // Interned strings
+    private final List<String> stringTable = new ArrayList<>();
+    private final Map<User, Integer> users = new IdentityHashMap<>();
+    private final List<User> userTable = new ArrayList<>();
+    private final Map<Event, Integer> events = new IdentityHashMap<>();
+    private final List<Event> eventTable = new ArrayList<>();
+
+    private SnapshotWriter(NUPlanner planner) {
+      this.planner = planner;
+      // Registered users and events come first so they keep their order
+      for (User user : planner.allUsers()) {
+        userNumber(user);
+      }
+      for (Event event : planner.allEvents()) {
+        eventNumber(event);
+      }
+      // Also keep users and events only reachable from a schedule or an event
+      for (int index = 0; index < userTable.size(); index++) {
+        for (Event event : userTable.get(index).userSchedule()) {
+          eventNumber(event);
+        }
+      }
+    }
+
+    private int stringNumber(String value) {
+      Integer number = strings.get(value);
+      if (number == null) {
+        number = stringTable.size();
+        strings.put(value, number);
+        stringTable.add(value);
+      }
+      return number;
+    }
+
+    private int userNumber(User user) {
+      Integer number = users.get(user);
+      if (number == null) {
+        number = userTable.size();
+        users.put(user, number);
+        userTable.add(user);
+        stringNumber(user.userId());
+      }
+      return number;
+    }
+
+    private int eventNumber(Event event) {
+      Integer number = events.get(event);
+      if (number == null) {
+        number = eventTable.size();
+        events.put(event, number);
+        eventTable.add(event);
+        List<String> info = event.eventInfo();
+        stringNumber(info.get(0));
+        stringNumber(event.location());
+        userNumber(event.hostInfo());
+        for (User invitee : event.invitees()) {
+          userNumber(invitee);
+        }
+      }
+      return number;
+    }
+
+    private void write(DataOutputStream out, long checkpoint) throws IOException {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(checkpoint);
+      out.writeInt(stringTable.size());
+      for (String value : stringTable) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      out.writeInt(stringNumber(planner.currentUser()));
+
+      Map<User, Boolean> registered = new IdentityHashMap<>();
+      for (User user : planner.allUsers()) {
+        registered.put(user, true);
+      }
+      out.writeInt(userTable.size());
+      int scheduleOffset = 0;
+      for (User user : userTable) {
+        int scheduleCount = user.userSchedule().size();
+        out.writeInt(strings.get(user.userId()));
+        out.writeInt(registered.containsKey(user) ? REGISTERED : 0);
+        out.writeInt(scheduleOffset);
+        out.writeInt(scheduleCount);
+        scheduleOffset += scheduleCount;
+      }
+
+      out.writeInt(eventTable.size());
+      int inviteeOffset = 0;
+      for (Event event : eventTable) {
+        out.writeInt(strings.get(event.eventInfo().get(0)));
+        out.writeInt(strings.get(event.location()));
+        out.writeInt(users.get(event.hostInfo()));
+        out.writeShort(minuteOfDay(event.startTime()));
+        out.writeShort(minuteOfDay(event.endTime()));
+        out.writeByte(event.startDay().getValue());
+        out.writeByte(event.endDay().getValue());
+        out.writeByte(event.isOnline() ? 1 : 0);
+        out.writeByte(0); // Padding
+        out.writeInt(inviteeOffset);
+        out.writeInt(event.invitees().size());
+        inviteeOffset += event.invitees().size();
+      }
+      out.writeInt(inviteeOffset);
+      for (Event event : eventTable) {
+        for (User invitee : event.invitees()) {
+          out.writeInt(users.get(invitee));
+        }
+      }
+
+      out.writeInt(scheduleOffset);
+      for (User user : userTable) {
+        for (Event event : user.userSchedule()) {
+          out.writeInt(events.get(event));
+        }
+      }
+      out.writeInt(planner.allEvents().size());
+      for (Event event : planner.allEvents()) {
+        out.writeInt(events.get(event));
+      }
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+      return time.getHour() * 60 + time.getMinute();
+    }
+  }
+}
@@ -0,0 +1,315 @@
+package cs3500.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable view of every user and event in a planner at one point in time. It never
+ * changes, so it can be read from any thread without locks while the planner keeps changing.
+ *
+ * <p>A planner keeps its latest state up to date as it changes, so taking one is constant time.
+ * The state is made of persistent maps: each change to the planner builds a new state that
+ * copies only the paths to the users and events it changed, and shares everything else with
+ * the states before it. Schedules refer to events by serial number, so changing an event
+ * copies that event once instead of the schedule of everyone attending it.
+ */
+public final class PlannerState {
+  static final PlannerState EMPTY = new PlannerState(PersistentMap.empty(), null,
+          PersistentMap.empty(), PersistentMap.empty());
+
+  private final PersistentMap<String, Schedule> users;
+  private final UserOrder order; // The user IDs, last added first
+  // Every event on a schedule or in the directory, by serial number
+  private final PersistentMap<Long, Held> events;
+  private final PersistentMap<String, Long> names; // The directory of events by name
+
+  private PlannerState(PersistentMap<String, Schedule> users, UserOrder order,
+                       PersistentMap<Long, Held> events, PersistentMap<String, Long> names) {
+    this.users = users;
+    this.order = order;
+    this.events = events;
+    this.names = names;
+  }
+
+  /**
+   * An event as it was when the state was taken.
+   */
+  public static final class EventState {
+    private final List<String> info;
+    private final List<String> invitees;
+
+    private EventState(Event event) {
+      this.info = event.eventInfo(); // Already unmodifiable, and replaced on every change
+      List<String> inviteeIds = new ArrayList<>();
+      for (User invitee : event.invitees()) {
+        inviteeIds.add(invitee.userId());
+      }
+      this.invitees = List.copyOf(inviteeIds);
+    }
+
+    /**
+     * Returns the event's information in the same order as {@link Event#eventInfo()}.
+     *
+     * @return the name, start day, start time, end day, end time, location, online status, and
+     *         host's ID
+     */
+    public List<String> eventInfo() {
+      return info;
+    }
+
+    /**
+     * Returns the IDs of the invited users, not including the host.
+     *
+     * @return the invitees' IDs
+     */
+    public List<String> invitees() {
+      return invitees;
+    }
+
+    private boolean matches(Event event) {
+      if (info != event.eventInfo()) {
+        return false;
+      }
+      List<User> current = event.invitees();
+      if (current.size() != invitees.size()) {
+        return false;
+      }
+      for (int index = 0; index < invitees.size(); index++) {
+        if (!invitees.get(index).equals(current.get(index).userId())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return info.get(0);
+    }
+  }
+
+  /**
+   * A user's schedule as the serial numbers of its events, in schedule order.
+   */
+  private static final class Schedule {
+    private final long version;
+    private final long[] serials;
+
+    private Schedule(long version, long[] serials) {
+      this.version = version;
+      this.serials = serials;
+    }
+  }
+
+  /**
+   * An event along with the number of schedules it is on, so it can be dropped once it is on
+   * none and no longer in the directory.
+   */
+  private static final class Held {
+    private final EventState event;
+    private final int holders;
+
+    private Held(EventState event, int holders) {
+      this.event = event;
+      this.holders = holders;
+    }
+  }
+
+  /**
+   * A link in the list of user IDs. Users are never removed, so the list only grows at its head.
+   */
+  private static final class UserOrder {
+    private final String userId;
+    private final UserOrder next;
+    private final int size;
+
+    private UserOrder(String userId, UserOrder next) {
+      this.userId = userId;
+      this.next = next;
+      this.size = next == null ? 1 : next.size + 1;
+    }
+  }
+
+  /**
+   * Finds all users in the state.
+   *
+   * @return the IDs of every user but the admin, in the order they were added
+   */
+  public List<String> findAllUsers() {
+    String[] userIds = new String[order == null ? 0 : order.size];
+    int index = userIds.length;
+    for (UserOrder link = order; link != null; link = link.next) {
+      userIds[--index] = link.userId;
+    }
+    List<String> allUsers = new ArrayList<>(List.of(userIds));
+    allUsers.remove("admin");
+    return allUsers;
+  }
+
+  /**
+   * Returns the version a user's schedule had when the state was taken, which goes up whenever
+   * the schedule or an event on it changes.
+   *
+   * @param userId the ID of the user
+   * @return the version of the user's schedule
+   * @throws IllegalArgumentException if the user was not in the system
+   */
+  public long userVersion(String userId) throws IllegalArgumentException {
+    return schedule(userId).version;
+  }
+
+  /**
+   * Returns the events on a user's schedule.
+   *
+   * @param userId the ID of the user
+   * @return the events in the order they are on the schedule
+   * @throws IllegalArgumentException if the user was not in the system
+   */
+  public List<EventState> userSchedule(String userId) throws IllegalArgumentException {
+    long[] serials = schedule(userId).serials;
+    List<EventState> schedule = new ArrayList<>(serials.length);
+    for (long serial : serials) {
+      schedule.add(events.get(serial).event);
+    }
+    return schedule;
+  }
+
+  /**
+   * Returns the events on every user's schedule in the same form as
+   * {@link IReadOnlyCentralSystem#userSchedule(boolean)}, where an event on several schedules
+   * is listed once.
+   *
+   * @return a map of the events sorted by start time, with the event information mapped to the
+   *         list of invited users
+   */
+  public Map<List<String>, List<String>> allSchedules() {
+    Map<List<String>, List<String>> userEvents = new LinkedHashMap<>();
+    for (String userId : findAllUsers()) {
+      for (EventState event : userSchedule(userId)) {
+        userEvents.put(event.info, event.invitees);
+      }
+    }
+    return NUPlanner.sortByStart(userEvents);
+  }
+
+  /**
+   * Finds an event in the directory by its name.
+   *
+   * @param eventName the name of the event
+   * @return the event, or null if no event had the name
+   */
+  public EventState findEventByName(String eventName) {
+    Long serial = names.get(eventName);
+    return serial == null ? null : events.get(serial).event;
+  }
+
+  private Schedule schedule(String userId) throws IllegalArgumentException {
+    Schedule schedule = users.get(userId);
+    if (schedule == null) {
+      throw new IllegalArgumentException("User is not in the system");
+    }
+    return schedule;
+  }
+
+  /**
+   * Returns a state where the user's schedule is as it is now, along with the events on it.
+   *
+   * @param user the user whose schedule changed or who was added
+   * @return the new state
+   */
+  PlannerState withUser(User user) {
+    Schedule old = users.get(user.userId());
+    List<Event> schedule = user.userSchedule();
+    long[] serials = new long[schedule.size()];
+    PersistentMap<Long, Held> changed = events;
+    // How many more schedules each event is on than before
+    Map<Long, Integer> holders = new HashMap<>();
+    for (int index = 0; index < serials.length; index++) {
+      serials[index] = schedule.get(index).serial();
+      changed = refresh(changed, schedule.get(index));
+      holders.merge(serials[index], 1, Integer::sum);
+    }
+    if (old != null) {
+      for (long serial : old.serials) {
+        holders.merge(serial, -1, Integer::sum);
+      }
+    }
+    for (Map.Entry<Long, Integer> held : holders.entrySet()) {
+      if (held.getValue() != 0) {
+        Held entry = changed.get(held.getKey());
+        changed = changed.put(held.getKey(),
+                new Held(entry.event, entry.holders + held.getValue()));
+        changed = collect(changed, names, held.getKey());
+      }
+    }
+    UserOrder added = old == null ? new UserOrder(user.userId(), order) : order;
+    return new PlannerState(users.put(user.userId(), new Schedule(user.version(), serials)),
+            added, changed, names);
+  }
+
+  /**
+   * Returns a state where the event is as it is now, if the state has it.
+   *
+   * @param event the event that changed
+   * @return the new state
+   */
+  PlannerState withEvent(Event event) {
+    if (events.get(event.serial()) == null) {
+      return this;
+    }
+    return new PlannerState(users, order, refresh(events, event), names);
+  }
+
+  /**
+   * Returns a state where a name in the directory refers to the given event.
+   *
+   * @param name  the name in the directory
+   * @param event the event with the name, or null if no event has it anymore
+   * @return the new state
+   */
+  PlannerState withName(String name, Event event) {
+    Long old = names.get(name);
+    PersistentMap<String, Long> renamed;
+    PersistentMap<Long, Held> changed = events;
+    if (event == null) {
+      renamed = names.remove(name);
+    } else {
+      renamed = names.put(name, event.serial());
+      changed = refresh(changed, event);
+    }
+    if (old != null && !old.equals(renamed.get(name))) {
+      changed = collect(changed, renamed, old);
+    }
+    return new PlannerState(users, order, changed, renamed);
+  }
+
+  private static PersistentMap<Long, Held> refresh(PersistentMap<Long, Held> events,
+                                                   Event event) {
+    Held held = events.get(event.serial());
+    if (held == null) {
+      return events.put(event.serial(), new Held(new EventState(event), 0));
+    }
+    if (held.event.matches(event)) {
+      return events;
+    }
+    return events.put(event.serial(), new Held(new EventState(event), held.holders));
+  }
+
+  /**
+   * Drops an event that is on no schedule and not in the directory.
+   */
+  private static PersistentMap<Long, Held> collect(PersistentMap<Long, Held> events,
+                                                   PersistentMap<String, Long> names,
+                                                   long serial) {
+    Held held = events.get(serial);
+    if (held != null && held.holders == 0
+            && !Objects.equals(names.get(held.event.toString()), serial)) {
+      return events.remove(serial);
+    }
+    return events;
+  }
+}
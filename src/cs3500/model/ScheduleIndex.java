@@ -0,0 +1,306 @@
+package cs3500.model;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interval tree over the minute-of-week segments of the events in a user's schedule.
+ * Events that wrap into the next week are stored as two segments, one running to the end of
+ * the week and one starting at the beginning of it.
+ * Overlap and point-in-time lookups take O(log n + k) time for k matching segments.
+ */
+class ScheduleIndex {
+
+  /**
+   * A node of the tree holding one half-open segment [start, end) of an event.
+   */
+  private static final class Node {
+    private final int start;
+    private final int end;
+    private final long seq; // Breaks ties between segments with the same start
+    private final boolean tail; // Whether this segment is the wrapped part of its event
+    private final Event event;
+    private Node left;
+    private Node right;
+    private int height;
+    private int maxEnd; // The largest end of any segment in this subtree
+
+    private Node(int start, int end, long seq, boolean tail, Event event) {
+      this.start = start;
+      this.end = end;
+      this.seq = seq;
+      this.tail = tail;
+      this.event = event;
+      this.height = 1;
+      this.maxEnd = end;
+    }
+  }
+
+  private Node root;
+  private long nextSeq;
+  // The segments each indexed event was stored under, so it can be removed after its times change
+  private final Map<Event, List<Node>> indexed = new IdentityHashMap<>();
+
+  /**
+   * Adds the segments of the given event to the index.
+   *
+   * @param event the event being indexed
+   */
+  void add(Event event) {
+    List<Node> nodes = new ArrayList<>();
+    int[] segments = ValidateEvent.segments(event);
+    for (int index = 0; index < segments.length; index += 2) {
+      // Every segment after the first one of an event is its wrapped part
+      Node node = new Node(segments[index], segments[index + 1], nextSeq++, index > 0, event);
+      root = insert(root, node);
+      nodes.add(node);
+    }
+    indexed.put(event, nodes);
+  }
+
+  /**
+   * Returns a copy of the index that shares no nodes with it, so either can change without
+   * affecting the other. Events stay indexed under the times they were indexed under here.
+   *
+   * @return the copy
+   */
+  ScheduleIndex copy() {
+    ScheduleIndex copy = new ScheduleIndex();
+    Map<Node, Node> copies = new IdentityHashMap<>();
+    copy.root = copy(root, copies);
+    copy.nextSeq = nextSeq;
+    for (Map.Entry<Event, List<Node>> entry : indexed.entrySet()) {
+      List<Node> nodes = new ArrayList<>();
+      for (Node node : entry.getValue()) {
+        nodes.add(copies.get(node));
+      }
+      copy.indexed.put(entry.getKey(), nodes);
+    }
+    return copy;
+  }
+
+  /**
+   * Removes the given event from the index, using the times it was indexed under.
+   *
+   * @param event the event being removed
+   * @return the segments the event was indexed under in the order start1, end1, start2, end2,
+   *         or null if the event was not in the index
+   */
+  int[] remove(Event event) {
+    List<Node> nodes = indexed.remove(event);
+    if (nodes == null) {
+      return null;
+    }
+    int[] segments = new int[nodes.size() * 2];
+    for (int index = 0; index < nodes.size(); index++) {
+      Node node = nodes.get(index);
+      root = delete(root, node.start, node.seq);
+      segments[index * 2] = node.start;
+      segments[index * 2 + 1] = node.end;
+    }
+    return segments;
+  }
+
+  /**
+   * Checks if any indexed event overlaps with the segments of the given event.
+   *
+   * @param event the event being checked
+   * @return true if an indexed event overlaps the event, false otherwise
+   */
+  boolean overlaps(Event event) {
+    if (event.endsNextWeek()) {
+      return anyOverlap(root, event.startMinute(), ValidateEvent.MINUTES_PER_WEEK)
+              || anyOverlap(root, 0, event.endMinute());
+    }
+    return anyOverlap(root, event.startMinute(), event.endMinute());
+  }
+
+  /**
+   * Finds the events happening at the given minute of the week, not counting events that start
+   * or end exactly at that minute.
+   *
+   * @param minute the minute of the week being checked
+   * @return the events happening at that minute in order of their start
+   */
+  List<Event> containing(int minute) {
+    List<Event> found = new ArrayList<>();
+    containing(root, minute, found);
+    return found;
+  }
+
+  /**
+   * Finds the segments of indexed events that overlap the half-open range [start, end).
+   *
+   * @param start the first minute of the range
+   * @param end   the minute after the last minute of the range
+   * @return the overlapping segments as start and end pairs
+   */
+  List<int[]> overlapping(int start, int end) {
+    List<int[]> found = new ArrayList<>();
+    overlapping(root, start, end, found);
+    return found;
+  }
+
+  private boolean anyOverlap(Node node, int start, int end) {
+    if (node == null || node.maxEnd <= start || start >= end) {
+      return false;
+    }
+    if (node.start < end && node.end > start) {
+      return true;
+    }
+    if (anyOverlap(node.left, start, end)) {
+      return true;
+    }
+    // Everything to the right starts after the range if this segment does
+    return node.start < end && anyOverlap(node.right, start, end);
+  }
+
+  private void overlapping(Node node, int start, int end, List<int[]> found) {
+    if (node == null || node.maxEnd <= start) {
+      return;
+    }
+    overlapping(node.left, start, end, found);
+    if (node.start >= end) {
+      return;
+    }
+    if (node.end > start) {
+      found.add(new int[]{node.start, node.end});
+    }
+    overlapping(node.right, start, end, found);
+  }
+
+  private void containing(Node node, int minute, List<Event> found) {
+    if (node == null || node.maxEnd <= minute) {
+      return;
+    }
+    containing(node.left, minute, found);
+    if (node.start > minute) {
+      return;
+    }
+    // The wrapped part of an event has no real start, so the first minute of the week is inside it
+    if ((node.start < minute || node.tail) && minute < node.end) {
+      found.add(node.event);
+    }
+    containing(node.right, minute, found);
+  }
+
+  private static int compare(int start, long seq, Node node) {
+    if (start != node.start) {
+      return Integer.compare(start, node.start);
+    }
+    return Long.compare(seq, node.seq);
+  }
+
+  private static Node copy(Node node, Map<Node, Node> copies) {
+    if (node == null) {
+      return null;
+    }
+    Node copy = new Node(node.start, node.end, node.seq, node.tail, node.event);
+    copy.left = copy(node.left, copies);
+    copy.right = copy(node.right, copies);
+    copy.height = node.height;
+    copy.maxEnd = node.maxEnd;
+    copies.put(node, copy);
+    return copy;
+  }
+
+  private static Node insert(Node node, Node added) {
+    if (node == null) {
+      return added;
+    }
+    if (compare(added.start, added.seq, node) < 0) {
+      node.left = insert(node.left, added);
+    } else {
+      node.right = insert(node.right, added);
+    }
+    return balance(node);
+  }
+
+  private static Node delete(Node node, int start, long seq) {
+    if (node == null) {
+      return null;
+    }
+    int comparison = compare(start, seq, node);
+    if (comparison < 0) {
+      node.left = delete(node.left, start, seq);
+    } else if (comparison > 0) {
+      node.right = delete(node.right, start, seq);
+    } else {
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+      Node successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      successor.right = deleteMin(node.right);
+      successor.left = node.left;
+      return balance(successor);
+    }
+    return balance(node);
+  }
+
+  private static Node deleteMin(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = deleteMin(node.left);
+    return balance(node);
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static void update(Node node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+    node.maxEnd = node.end;
+    if (node.left != null) {
+      node.maxEnd = Math.max(node.maxEnd, node.left.maxEnd);
+    }
+    if (node.right != null) {
+      node.maxEnd = Math.max(node.maxEnd, node.right.maxEnd);
+    }
+  }
+
+  private static Node balance(Node node) {
+    update(node);
+    int factor = height(node.left) - height(node.right);
+    if (factor > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (factor < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private static Node rotateRight(Node node) {
+    Node pivot = node.left;
+    node.left = pivot.right;
+    pivot.right = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  private static Node rotateLeft(Node node) {
+    Node pivot = node.right;
+    node.right = pivot.left;
+    pivot.left = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+}
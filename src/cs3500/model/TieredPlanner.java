@@ -0,0 +1,297 @@
+package cs3500.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A planner that keeps schedules on disk and only the recently used ones in memory, for
+ * planners with many users who are rarely looked at. Opening it reads only the user and event
+ * indexes, and each schedule is read the first time it is needed. After each call, the least
+ * recently used schedules are written back and dropped until the rest fit in the memory budget.
+ *
+ * <p>It behaves the same as a {@link NUPlanner}. Users and events handed out stay valid after
+ * their schedules are paged out, and read them back in when used. Changes reach disk when a
+ * schedule is paged out and when the planner is flushed or closed.
+ */
+public final class TieredPlanner implements ICentralSystem, AutoCloseable {
+  private final UserStore store;
+  private final NUPlanner planner;
+
+  private TieredPlanner(UserStore store) {
+    this.store = store;
+    this.planner = new NUPlanner(store.users(), store.events(), "admin");
+  }
+
+  /**
+   * Opens a planner stored in a directory, or creates an empty one if it holds none.
+   *
+   * @param directory    the directory the schedules and indexes are kept in
+   * @param memoryBudget roughly the most memory in bytes the schedules in memory should take,
+   *                     where the selected user's schedule is always kept
+   * @return the planner
+   * @throws IOException              if the indexes could not be read
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public static TieredPlanner open(Path directory, long memoryBudget)
+          throws IOException, IllegalArgumentException {
+    return new TieredPlanner(UserStore.open(directory, memoryBudget));
+  }
+
+  /**
+   * Writes every schedule in memory that changed, along with the indexes, so the planner can be
+   * opened again as it is now.
+   *
+   * @throws IOException if the planner could not be written
+   */
+  public void flush() throws IOException {
+    store.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+
+  private void trim() {
+    store.trim(planner.currentUser());
+  }
+
+  @Override
+  public String currentUser() {
+    return planner.currentUser();
+  }
+
+  @Override
+  public void setUser(String userId) {
+    planner.setUser(userId);
+    store.touch(userId);
+    trim();
+  }
+
+  @Override
+  public User findUserById(String userId) {
+    User user = planner.findUserById(userId);
+    store.touch(userId);
+    trim();
+    return user;
+  }
+
+  @Override
+  public Event findEventByName(String eventName) {
+    Event event = planner.findEventByName(eventName);
+    trim();
+    return event;
+  }
+
+  @Override
+  public List<Event> findEventsByTime(String day, String time) {
+    List<Event> events = planner.findEventsByTime(day, time);
+    trim();
+    return events;
+  }
+
+  @Override
+  public List<Event> findEventsByTime(String userId, String day, String time)
+          throws IllegalArgumentException {
+    List<Event> events = planner.findEventsByTime(userId, day, time);
+    store.touch(userId);
+    trim();
+    return events;
+  }
+
+  @Override
+  public Map<List<String>, List<String>> userSchedule(boolean allUsers) {
+    if (!allUsers) {
+      Map<List<String>, List<String>> schedule = planner.userSchedule(false);
+      trim();
+      return schedule;
+    }
+    // One schedule at a time, so they do not all have to fit in memory together
+    Map<List<String>, List<String>> userEvents = new LinkedHashMap<>();
+    for (String userId : planner.findAllUsers()) {
+      planner.userSchedule(userId).forEach(userEvents::putIfAbsent);
+      trim();
+    }
+    // Sorted the same way as a single schedule
+    return userEvents.entrySet()
+            .stream()
+            .sorted(Map.Entry.comparingByKey(Comparator.comparing(
+              list -> Integer.parseInt(list.get(2)))))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+              (oldValue, newValue) -> oldValue, LinkedHashMap::new));
+  }
+
+  @Override
+  public Map<List<String>, List<String>> userSchedule(String userId)
+          throws IllegalArgumentException {
+    Map<List<String>, List<String>> schedule = planner.userSchedule(userId);
+    store.touch(userId);
+    trim();
+    return schedule;
+  }
+
+  @Override
+  public PlannerSession session(String userId) throws IllegalArgumentException {
+    return new PlannerSession(this, userId);
+  }
+
+  /**
+   * Returns an immutable view of every user and event in the planner as they are now. It is
+   * built one schedule at a time, paging schedules back out as the budget needs, and the planner
+   * does not keep it, so it takes no memory once the caller is done with it. Building it reads
+   * every schedule, so callers that need only some users should ask for their schedules instead.
+   *
+   * @return the state of the planner
+   */
+  @Override
+  public PlannerState snapshot() {
+    PlannerState built = PlannerState.EMPTY;
+    Map<String, Event> directory = store.events();
+    Set<String> named = new HashSet<>();
+    for (User user : new ArrayList<>(store.users().values())) {
+      built = built.withUser(user);
+      // The user's events are in memory now, so finding them in the directory reads nothing
+      for (Event event : user.userSchedule()) {
+        String name = event.toString();
+        if (!named.contains(name) && directory.get(name) == event) {
+          built = built.withName(name, event);
+          named.add(name);
+        }
+      }
+      trim();
+    }
+    // Events that are on no schedule
+    for (String name : store.eventNames()) {
+      if (named.add(name)) {
+        built = built.withName(name, directory.get(name));
+        trim();
+      }
+    }
+    return built;
+  }
+
+  /**
+   * Returns an immutable view of only the given user's schedule as it is now, which pages in
+   * that one schedule instead of reading every schedule like {@link #snapshot()}.
+   *
+   * @param userId the ID of the user whose schedule the view has
+   * @return the state of the user's schedule, or an empty state if the user is not in the
+   *         planner
+   */
+  @Override
+  public PlannerState snapshot(String userId) {
+    User user = planner.findUserById(userId);
+    PlannerState built = user == null ? PlannerState.EMPTY : PlannerState.EMPTY.withUser(user);
+    store.touch(userId);
+    trim();
+    return built;
+  }
+
+  @Override
+  public List<String> findAllUsers() {
+    return planner.findAllUsers();
+  }
+
+  @Override
+  public void addUser(User userId) throws IllegalArgumentException {
+    if (planner.findUserById(userId.userId()) != null) {
+      throw new IllegalArgumentException("User already exists in the system.");
+    }
+    store.add(userId);
+    // Only the events that invited the user before they were added, instead of every event
+    for (Event event : store.takeInvitations(userId.userId())) {
+      if (event.invitees().contains(userId)) {
+        try {
+          userId.addEvent(event);
+        } catch (IllegalArgumentException ex) {
+          // User already has event in schedule
+        }
+      }
+    }
+    for (Event event : userId.userSchedule()) {
+      try {
+        planner.addEvent(event);
+      } catch (IllegalArgumentException ex) {
+        // Do not add event
+      }
+    }
+    planner.userChanged(userId);
+    trim();
+  }
+
+  @Override
+  public void createEvent(String name, String location, boolean isOnline, LocalTime startTime,
+                          LocalTime endTime, DayOfWeek startDay, DayOfWeek endDay,
+                          User host, List<User> invitedUsers) throws IllegalStateException {
+    try {
+      planner.createEvent(name, location, isOnline, startTime, endTime, startDay, endDay, host,
+              invitedUsers);
+    } finally {
+      trim();
+    }
+  }
+
+  @Override
+  public void addEvent(Event event) throws IllegalArgumentException {
+    try {
+      planner.addEvent(event);
+    } finally {
+      trim();
+    }
+  }
+
+  @Override
+  public void modifyEvent(Event event, Map<String, String> changes) {
+    try {
+      planner.modifyEvent(event, changes);
+    } finally {
+      trim();
+    }
+  }
+
+  @Override
+  public void applyBatch(List<PlannerCommand> commands) throws IllegalArgumentException {
+    try {
+      planner.applyBatch(commands); // Nothing is paged out until the whole batch is done
+    } finally {
+      trim();
+    }
+  }
+
+  @Override
+  public void updateEventInvited(Event event, User user) {
+    try {
+      planner.updateEventInvited(event, user);
+    } finally {
+      trim();
+    }
+  }
+
+  @Override
+  public boolean scheduleEvent(Event event, List<String> users) {
+    try {
+      return planner.scheduleEvent(event, users);
+    } finally {
+      trim();
+    }
+  }
+
+  @Override
+  public boolean scheduleEvent(String userId, Event event, List<String> users)
+          throws IllegalArgumentException {
+    try {
+      return planner.scheduleEvent(userId, event, users);
+    } finally {
+      trim();
+    }
+  }
+}
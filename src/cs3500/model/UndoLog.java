@@ -0,0 +1,91 @@
+package cs3500.model;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers how the events, schedules, and directory entries touched by a batch of changes
+ * were before the batch, so the batch can be undone. Each is saved once, the first time it is
+ * about to change, so undoing costs only as much as what the batch touched. The one exception
+ * is the order of a directory that keeps one: the first time a name already in it is about to
+ * change, the order of its names is saved too, so undoing puts every name back in its place.
+ */
+final class UndoLog {
+  private final Map<Event, Event> events = new IdentityHashMap<>(); // Each event and its copy
+  private final Map<User, User.SavedSchedule> schedules = new IdentityHashMap<>();
+  private final Map<String, Event> names = new LinkedHashMap<>(); // Null if the name was free
+  private List<String> order; // The directory's names in order, or null if not saved
+
+  /**
+   * Saves an event before it changes, if it has not been saved already.
+   *
+   * @param event the event about to change
+   */
+  void saveEvent(Event event) {
+    if (!events.containsKey(event)) {
+      events.put(event, event.copy());
+    }
+  }
+
+  /**
+   * Saves a user's schedule before it or an event on it changes, if it has not been saved
+   * already.
+   *
+   * @param user the user whose schedule is about to change
+   */
+  void saveSchedule(User user) {
+    if (!schedules.containsKey(user)) {
+      schedules.put(user, user.saveSchedule());
+    }
+  }
+
+  /**
+   * Saves the event a name refers to in a directory before the name is added, removed, or
+   * pointed at another event, if it has not been saved already.
+   *
+   * @param name      the name about to change
+   * @param directory the directory of events by name
+   */
+  void saveName(String name, Map<String, Event> directory) {
+    if (!names.containsKey(name)) {
+      names.put(name, directory.get(name));
+      // Removing or renaming the event would move it, so its place is saved with the others
+      if (order == null && names.get(name) != null && directory instanceof LinkedHashMap) {
+        order = new ArrayList<>(directory.keySet());
+      }
+    }
+  }
+
+  /**
+   * Puts back everything saved, with the directory's names in the order they were in.
+   *
+   * @param directory the directory of events by name
+   */
+  void undo(Map<String, Event> directory) {
+    for (Map.Entry<Event, Event> saved : events.entrySet()) {
+      saved.getKey().restore(saved.getValue());
+    }
+    for (Map.Entry<User, User.SavedSchedule> saved : schedules.entrySet()) {
+      saved.getKey().restoreSchedule(saved.getValue());
+    }
+    for (Map.Entry<String, Event> saved : names.entrySet()) {
+      if (saved.getValue() == null) {
+        directory.remove(saved.getKey());
+      } else {
+        directory.put(saved.getKey(), saved.getValue());
+      }
+    }
+    if (order != null) {
+      // Every name in the saved order is back, and every other name is gone
+      Map<String, Event> ordered = new LinkedHashMap<>();
+      for (String name : order) {
+        ordered.put(name, directory.get(name));
+      }
+      directory.clear();
+      directory.putAll(ordered);
+    }
+  }
+}
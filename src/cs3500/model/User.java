@@ -11,8 +11,16 @@ import java.util.Objects;
 public class User implements IUser {
   private final String id;
   // Invariant: value is never empty or null
-  private final List<Event> schedule;
-  // Invariant: value never contains null Events
+  private List<Event> schedule;
+  // Invariant: value never contains null Events, and is only null while paged out
+  private ScheduleIndex index; // The events in the schedule ordered by minute of the week
+  // Invariant: value holds exactly the events in the schedule
+  private OccupancyBitmap occupancy; // The busy minutes of the week, null if not tracked
+  // Invariant: if not null, a bit is set exactly when an event in the schedule covers the minute
+  private final boolean trackOccupancy;
+  private long version; // Changed whenever the schedule or an event on it changes
+  private UserStore store; // Pages the schedule in and out, or null if it stays in memory
+  private boolean pagedOut; // Whether the schedule is only on disk
 
   /**
    * Public constructor for a User.
@@ -21,11 +29,112 @@ public class User implements IUser {
    * @param id The id of the user to be created.
    */
   public User(String id) {
+    this(id, true);
+  }
+
+  /**
+   * Creates a User with the option to not track which minutes of the week they are busy.
+   * Tracking makes free/busy checks take constant time at the cost of about 1KB per user.
+   *
+   * @param id             The id of the user to be created.
+   * @param trackOccupancy whether to keep a minute-by-minute record of the user's busy times
+   */
+  public User(String id, boolean trackOccupancy) {
     if (id == null || id.isEmpty()) {
       throw new IllegalArgumentException("ID cannot be null or empty");
     }
     this.id = id;
+    this.trackOccupancy = trackOccupancy;
+    this.store = null;
+    allocate();
+  }
+
+  /**
+   * Creates a user whose schedule is on disk in the given store, and is only read the first
+   * time it is needed.
+   *
+   * @param id    The id of the user to be created.
+   * @param store the store that holds the user's schedule
+   */
+  User(String id, UserStore store) {
+    this.id = id;
+    this.trackOccupancy = true;
+    this.store = store;
+    this.pagedOut = true;
+  }
+
+  private void allocate() {
     this.schedule = new ArrayList<>();
+    this.index = new ScheduleIndex();
+    this.occupancy = trackOccupancy ? new OccupancyBitmap() : null;
+  }
+
+  /**
+   * Reads the schedule back from the store if it was paged out. Reading it is not a change, so
+   * the version is kept.
+   */
+  void load() {
+    if (pagedOut) {
+      pagedOut = false;
+      allocate();
+      long saved = version;
+      store.pageIn(this);
+      version = saved;
+    }
+  }
+
+  /**
+   * Hands the schedule over to a store, which pages it out when it is not being used.
+   *
+   * @param store the store that holds the user's schedule from now on
+   */
+  void storedIn(UserStore store) {
+    this.store = store;
+  }
+
+  /**
+   * Drops the schedule from memory. The store must have saved it first.
+   */
+  void pageOut() {
+    schedule = null;
+    index = null;
+    occupancy = null;
+    pagedOut = true;
+  }
+
+  /**
+   * Checks if the schedule is in memory.
+   *
+   * @return true if the schedule is in memory, false if it is paged out
+   */
+  boolean isLoaded() {
+    return !pagedOut;
+  }
+
+  /**
+   * Checks if the given event is on the schedule, without reading a paged out schedule.
+   *
+   * @param event the event being checked
+   * @return true if the schedule is in memory and has the event, false otherwise
+   */
+  boolean holds(Event event) {
+    if (!pagedOut) {
+      for (Event scheduled : schedule) {
+        if (scheduled == event) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of events in the schedule, without reading a paged out schedule.
+   *
+   * @return the number of events, or 0 if the schedule is paged out
+   */
+  int scheduleSize() {
+    return pagedOut ? 0 : schedule.size();
   }
 
   @Override
@@ -36,15 +145,78 @@ public class User implements IUser {
   @Override
   public void addEvent(Event event) throws IllegalArgumentException {
     Objects.requireNonNull(event);
-    if (ValidateEvent.validEvent(event, schedule) && userInEvent(event)
-            && ValidateEvent.nonZeroMinuteEvent(event.dayInfo().get(0), event.dayInfo().get(1),
-            event.timeInfo().get(0), event.timeInfo().get(1))) {
+    load();
+    if (userInEvent(event) && ValidateEvent.nonZeroMinuteEvent(event) && isFree(event)) {
       schedule.add(event);
+      index.add(event);
+      markBusy(ValidateEvent.segments(event));
+      version++;
+      resized(1);
     } else {
       throw new IllegalArgumentException("Event overlaps with another event or is too short");
     }
   }
 
+  /**
+   * Adds an event to the end of the schedule without checking it. Used to rebuild a schedule
+   * exactly as it was saved, even if modifying events had left some of them overlapping.
+   *
+   * @param event the event being added
+   */
+  void restoreEvent(Event event) {
+    load();
+    schedule.add(event);
+    index.add(event);
+    markBusy(ValidateEvent.segments(event));
+    version++;
+    resized(1);
+  }
+
+  /**
+   * A user's schedule as it was at one point in time, kept apart from the live schedule.
+   */
+  static final class SavedSchedule {
+    private final List<Event> schedule;
+    private final ScheduleIndex index;
+    private final OccupancyBitmap occupancy;
+    private final long version;
+
+    private SavedSchedule(List<Event> schedule, ScheduleIndex index, OccupancyBitmap occupancy,
+                          long version) {
+      this.schedule = schedule;
+      this.index = index;
+      this.occupancy = occupancy;
+      this.version = version;
+    }
+  }
+
+  /**
+   * Copies the schedule as it is now, along with its index and version, so changes to it can
+   * be undone.
+   *
+   * @return the copy
+   */
+  SavedSchedule saveSchedule() {
+    load();
+    return new SavedSchedule(new ArrayList<>(schedule), index.copy(),
+            occupancy == null ? null : occupancy.copy(), version);
+  }
+
+  /**
+   * Puts the schedule back exactly as it was saved, including an index that had fallen behind
+   * its events. The saved copy is used as it is, so it must not be restored twice.
+   *
+   * @param saved the schedule as it was
+   */
+  void restoreSchedule(SavedSchedule saved) {
+    load();
+    resized(saved.schedule.size() - schedule.size());
+    schedule = saved.schedule;
+    index = saved.index;
+    occupancy = saved.occupancy;
+    version = saved.version;
+  }
+
   /**
    * Validates whether a user is part of an event or not, to decide if the event should be added to
    * the user's schedule.
@@ -58,13 +230,87 @@ public class User implements IUser {
 
   @Override
   public void removeEvent(Event event) throws IllegalArgumentException {
-    if (!schedule.remove(event)) {
+    load();
+    int position = schedule.indexOf(event);
+    if (position < 0) {
       throw new IllegalArgumentException("Event is not on the schedule");
     }
+    // Unindex the scheduled instance of the event
+    markFree(index.remove(schedule.remove(position)));
+    version++;
+    resized(-1);
+  }
+
+  private void resized(int change) {
+    if (store != null) {
+      store.resized(change);
+    }
+  }
+
+  @Override
+  public boolean isFree(Event event) {
+    load();
+    if (occupancy == null) {
+      return !index.overlaps(event);
+    }
+    if (event.endsNextWeek()) {
+      return occupancy.isFree(event.startMinute(), ValidateEvent.MINUTES_PER_WEEK)
+              && occupancy.isFree(0, event.endMinute());
+    }
+    return occupancy.isFree(event.startMinute(), event.endMinute());
+  }
+
+  @Override
+  public long version() {
+    return version;
+  }
+
+  /**
+   * Marks the user's schedule as changed, for when an event on it changes.
+   */
+  void markChanged() {
+    version++;
+  }
+
+  /**
+   * Moves an event to its current times in the schedule index. Called when the times of an
+   * event change so lookups stay in sync with the event.
+   *
+   * @param event the event whose times changed
+   */
+  void reindex(Event event) {
+    load();
+    int[] oldSegments = index.remove(event);
+    if (oldSegments != null) {
+      markFree(oldSegments);
+      index.add(event);
+      markBusy(ValidateEvent.segments(event));
+    }
+  }
+
+  private void markBusy(int[] segments) {
+    if (occupancy != null) {
+      for (int segment = 0; segment < segments.length; segment += 2) {
+        occupancy.set(segments[segment], segments[segment + 1]);
+      }
+    }
+  }
+
+  private void markFree(int[] segments) {
+    if (occupancy != null && segments != null) {
+      for (int segment = 0; segment < segments.length; segment += 2) {
+        occupancy.clear(segments[segment], segments[segment + 1]);
+        // Events moved onto each other through a modify can share minutes, so restore theirs
+        for (int[] other : index.overlapping(segments[segment], segments[segment + 1])) {
+          occupancy.set(other[0], other[1]);
+        }
+      }
+    }
   }
 
   @Override
   public Event findEventByName(String eventName) throws IllegalArgumentException {
+    load();
     for (Event event : this.schedule) {
       if (event.toString().equals(eventName)) {
         return event;
@@ -75,17 +321,20 @@ public class User implements IUser {
 
   @Override
   public List<Event> userSchedule() {
+    load();
     return new ArrayList<>(schedule);
   }
 
   @Override
   public List<Event> checkTime(DayOfWeek day, LocalTime time) {
-    List<Event> events = new ArrayList<>();
-    for (Event event : schedule) {
-      if (event.checkTime(time, day)) {
-        events.add(event);
-      }
+    load();
+    int minute = ValidateEvent.minuteOfWeek(day.getValue(), time);
+    // An event is only happening at a minute if it covers both that minute and the one before it
+    if (occupancy != null && !(occupancy.isBusy(minute) && occupancy.isBusy(
+            (minute + ValidateEvent.MINUTES_PER_WEEK - 1) % ValidateEvent.MINUTES_PER_WEEK))) {
+      return null;
     }
+    List<Event> events = index.containing(minute);
     if (events.isEmpty()) {
       return null;
     } else {
@@ -0,0 +1,597 @@
+package cs3500.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps user schedules on disk and only the recently used ones in memory. Every user is always
+ * in memory as a small object with just an ID, and their schedule is read from their page file
+ * the first time it is needed. Schedules are paged out again, least recently used first, once
+ * the schedules in memory take more than the memory budget.
+ *
+ * <p>An event stays in memory while any of its users' schedules is in memory, and all of them
+ * are read in before it changes. So a paged out schedule never misses a change, and only needs
+ * writing again if it changed while in memory.
+ *
+ * <p>Users whose schedules were made in memory, rather than read from the store, are paged out
+ * like the rest once added.
+ *
+ * <p>The directory holds an index of the user IDs, an index of the event names with the IDs of
+ * their users, and one page file per user that has been paged out. Events that were on none of
+ * their users' schedules when the index was written are in it whole. The indexes are only written
+ * by {@link #flush()}.
+ */
+final class UserStore {
+  private static final int MAGIC = 0x4E555047; // "NUPG"
+  // Rough heap sizes, used to keep the schedules in memory under the budget
+  private static final long USER_BYTES = 1_600; // Occupancy bitmap, index, and schedule list
+  private static final long EVENT_BYTES = 512; // Event, its formatted info, and index nodes
+
+  private final Path directory;
+  private final long budget;
+  private final Map<String, User> users = new LinkedHashMap<>(); // All users, by ID
+  private final Map<String, Integer> pages = new HashMap<>(); // The page file of each user
+  private final LinkedHashMap<String, User> resident =
+      new LinkedHashMap<>(16, 0.75f, true); // Paged in users, least recently used first
+  private final Map<String, Long> savedVersions = new HashMap<>(); // Version on each page
+  private final Events events = new Events();
+  private long residentEvents; // The number of events on the schedules in memory
+  // The names of events that invite users who were not added yet, by user ID
+  private final Map<String, List<String>> invitations = new HashMap<>();
+
+  private UserStore(Path directory, long budget) {
+    this.directory = directory;
+    this.budget = budget;
+  }
+
+  /**
+   * Opens the store in a directory, reading only its indexes.
+   *
+   * @param directory the directory of the store, which is created if it does not exist
+   * @param budget    the most memory in bytes the schedules in memory should take
+   * @return the store
+   * @throws IOException              if the indexes could not be read
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  static UserStore open(Path directory, long budget) throws IOException, IllegalArgumentException {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Memory budget cannot be negative");
+    }
+    Files.createDirectories(directory);
+    UserStore store = new UserStore(directory, budget);
+    store.users.put("admin", new User("admin")); // Never has a schedule, so never paged
+    List<User> pinned = new ArrayList<>();
+    try (DataInputStream in = openIndex(directory.resolve("users.idx"))) {
+      if (in != null) {
+        for (int count = in.readInt(); count > 0; count--) {
+          String id = in.readUTF();
+          User user = new User(id, store);
+          store.users.put(id, user);
+          store.pages.put(id, in.readInt());
+          store.savedVersions.put(id, 0L);
+          if (in.readBoolean()) {
+            pinned.add(user);
+          }
+        }
+      }
+    }
+    try (DataInputStream in = openIndex(directory.resolve("events.idx"))) {
+      if (in != null) {
+        for (int count = in.readInt(); count > 0; count--) {
+          String name = in.readUTF();
+          String[] userIds = new String[in.readInt()];
+          for (int index = 0; index < userIds.length; index++) {
+            String userId = in.readUTF();
+            User user = store.users.get(userId);
+            userIds[index] = user == null ? userId : user.userId(); // One copy of each ID
+          }
+          byte[] record = null;
+          int length = in.readInt();
+          if (length >= 0) {
+            record = new byte[length];
+            in.readFully(record);
+          }
+          store.events.cold.put(name, new ColdEvent(null, userIds, record));
+          store.noteInvitations(name, userIds);
+        }
+      }
+    }
+    for (User user : pinned) {
+      user.load();
+    }
+    return store;
+  }
+
+  private static DataInputStream openIndex(Path file) throws IOException {
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(
+              Files.newInputStream(file), 1 << 16));
+      if (in.readInt() != MAGIC) {
+        in.close();
+        throw new IOException("Not a user store index: " + file);
+      }
+      return in;
+    } catch (NoSuchFileException ex) {
+      return null; // A new store
+    }
+  }
+
+  /**
+   * Returns every user by ID, including the admin user. Schedules are read as they are used.
+   *
+   * @return the users
+   */
+  Map<String, User> users() {
+    return users;
+  }
+
+  /**
+   * Returns every event by name. Looking up an event reads in a schedule it is on if needed.
+   *
+   * @return the events
+   */
+  Map<String, Event> events() {
+    return events;
+  }
+
+  /**
+   * Returns the names of every event, without reading in any schedule.
+   *
+   * @return the names
+   */
+  List<String> eventNames() {
+    List<String> names = new ArrayList<>(events.live.keySet());
+    names.addAll(events.cold.keySet());
+    return names;
+  }
+
+  /**
+   * Adds a user whose schedule is in memory to the store. It is written out when paged out.
+   *
+   * @param user the user being added
+   */
+  void add(User user) {
+    user.storedIn(this);
+    users.put(user.userId(), user);
+    pages.put(user.userId(), pages.size());
+    resident.put(user.userId(), user);
+    residentEvents += user.scheduleSize();
+  }
+
+  /**
+   * Counts events added to or removed from a schedule in memory.
+   *
+   * @param change the number of events added, or negative for events removed
+   */
+  void resized(int change) {
+    residentEvents += change;
+  }
+
+  /**
+   * Returns the events that invited a user before they were added, and forgets them.
+   *
+   * @param userId the ID of the user
+   * @return the events, read in if needed
+   */
+  List<Event> takeInvitations(String userId) {
+    List<Event> invited = new ArrayList<>();
+    List<String> names = invitations.remove(userId);
+    if (names != null) {
+      for (String name : names) {
+        Event event = events.get(name);
+        if (event != null) {
+          invited.add(event);
+        }
+      }
+    }
+    return invited;
+  }
+
+  private void noteInvitations(String name, String[] userIds) {
+    for (String userId : userIds) {
+      if (!users.containsKey(userId)) {
+        invitations.computeIfAbsent(userId, id -> new ArrayList<>()).add(name);
+      }
+    }
+  }
+
+  /**
+   * Marks a user as the most recently used, so their schedule is paged out last.
+   *
+   * @param userId the ID of the user
+   */
+  void touch(String userId) {
+    resident.get(userId);
+  }
+
+  /**
+   * Reads a user's schedule from their page, reusing the events already in memory. Called by
+   * the user the first time their paged out schedule is needed.
+   *
+   * @param user the user whose schedule is read
+   * @throws IllegalStateException if the page could not be read
+   */
+  void pageIn(User user) throws IllegalStateException {
+    Path page = page(user.userId());
+    if (Files.exists(page)) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+              Files.newInputStream(page)))) {
+        if (in.readInt() != MAGIC) {
+          throw new IOException("Not a schedule page: " + page);
+        }
+        for (int count = in.readInt(); count > 0; count--) {
+          user.restoreEvent(readEvent(in));
+        }
+      } catch (IOException | IllegalArgumentException ex) {
+        throw new IllegalStateException("Could not read the schedule of " + user.userId(), ex);
+      }
+    }
+    resident.put(user.userId(), user);
+  }
+
+  private Event readEvent(DataInputStream in) throws IOException {
+    String name = in.readUTF();
+    String location = in.readUTF();
+    boolean online = in.readBoolean();
+    DayOfWeek startDay = DayOfWeek.dayOf(in.readByte());
+    LocalTime startTime = LocalTime.ofSecondOfDay(in.readShort() * 60L);
+    DayOfWeek endDay = DayOfWeek.dayOf(in.readByte());
+    LocalTime endTime = LocalTime.ofSecondOfDay(in.readShort() * 60L);
+    String host = in.readUTF();
+    String[] userIds = new String[in.readInt() + 1];
+    userIds[0] = host;
+    for (int index = 1; index < userIds.length; index++) {
+      userIds[index] = in.readUTF();
+    }
+    Event event = events.live.get(name);
+    if (event == null) { // None of its users are in memory, so the page has it as it is
+      ColdEvent cold = events.cold.get(name);
+      if (cold != null && Arrays.equals(cold.userIds, userIds)) {
+        events.cold.remove(name);
+        event = cold.get(); // The same event if anything still holds it
+        if (event == null) {
+          event = newEvent(name, location, online, startTime, endTime, startDay, endDay,
+                  userIds);
+        }
+        events.live.put(name, event);
+      }
+    }
+    // Schedules can also hold events the planner does not list, even under a listed name
+    if (event == null || !event.location().equals(location) || event.isOnline() != online
+            || event.startDay() != startDay || !event.startTime().equals(startTime)
+            || event.endDay() != endDay || !event.endTime().equals(endTime)
+            || !Arrays.equals(userIds(event), userIds)) {
+      return newEvent(name, location, online, startTime, endTime, startDay, endDay, userIds);
+    }
+    return event;
+  }
+
+  private Event newEvent(String name, String location, boolean online, LocalTime startTime,
+                         LocalTime endTime, DayOfWeek startDay, DayOfWeek endDay,
+                         String[] userIds) {
+    List<User> invitees = new ArrayList<>();
+    for (int index = 1; index < userIds.length; index++) {
+      invitees.add(participant(userIds[index]));
+    }
+    return new Event(name, location, online, startTime, endTime, startDay, endDay,
+            participant(userIds[0]), invitees);
+  }
+
+  private User participant(String userId) {
+    User user = users.get(userId);
+    // Events can invite users that were never added to the planner
+    return user != null ? user : new User(userId);
+  }
+
+  /**
+   * Pages out the least recently used schedules until the ones in memory fit in the budget.
+   * Schedules that changed are written first. The selected user's schedule stays in memory.
+   *
+   * @param currentUser the ID of the selected user
+   */
+  void trim(String currentUser) {
+    long used = resident.size() * USER_BYTES + residentEvents * EVENT_BYTES;
+    Iterator<User> coldest = resident.values().iterator(); // Least recently used first
+    while (used > budget && coldest.hasNext()) {
+      User user = coldest.next();
+      if (user.userId().equals(currentUser) || holdsStray(user)) {
+        continue;
+      }
+      try {
+        save(user);
+      } catch (IOException ex) {
+        return; // Keep it in memory, flush reports the error
+      }
+      for (Event event : user.userSchedule()) {
+        if (!otherUserLoaded(event, user)) {
+          events.demote(event);
+        }
+      }
+      coldest.remove();
+      used -= USER_BYTES + EVENT_BYTES * user.scheduleSize();
+      residentEvents -= user.scheduleSize();
+      user.pageOut();
+    }
+  }
+
+  /**
+   * Checks if a user has an event on their schedule that they are neither hosting nor invited
+   * to, which modifying the invitees of an event can leave behind. Such an event does not read
+   * the user's schedule in before it changes, so the schedule has to stay in memory.
+   */
+  private static boolean holdsStray(User user) {
+    for (Event event : user.userSchedule()) {
+      if (!event.hostInfo().equals(user) && !event.invitees().contains(user)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean otherUserLoaded(Event event, User user) {
+    if (event.hostInfo() != user && event.hostInfo().isLoaded()) {
+      return true;
+    }
+    for (User invited : event.invitees()) {
+      if (invited != user && invited.isLoaded()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes every schedule in memory that changed, then the user and event indexes.
+   *
+   * @throws IOException if a page or index could not be written
+   */
+  void flush() throws IOException {
+    for (User user : resident.values()) {
+      save(user);
+    }
+    write(directory.resolve("users.idx"), out -> {
+      out.writeInt(pages.size());
+      for (String userId : users.keySet()) {
+        if (pages.containsKey(userId)) { // In the order they were added
+          out.writeUTF(userId);
+          out.writeInt(pages.get(userId));
+          User user = users.get(userId);
+          out.writeBoolean(user.isLoaded() && holdsStray(user)); // Read in again on open
+        }
+      }
+    });
+    write(directory.resolve("events.idx"), out -> {
+      out.writeInt(events.live.size() + events.cold.size());
+      for (Event event : events.live.values()) {
+        // An event can be on none of its users' schedules, and then only the index has it
+        boolean held = event.hostInfo().holds(event);
+        for (User invited : event.invitees()) {
+          held = held || invited.holds(event);
+        }
+        writeUserIds(out, event.toString(), userIds(event), held ? null : record(event));
+      }
+      for (Map.Entry<String, ColdEvent> event : events.cold.entrySet()) {
+        writeUserIds(out, event.getKey(), event.getValue().userIds, event.getValue().record);
+      }
+    });
+  }
+
+  private static void writeUserIds(DataOutputStream out, String name, String[] userIds,
+                                   byte[] record) throws IOException {
+    out.writeUTF(name);
+    out.writeInt(userIds.length);
+    for (String userId : userIds) {
+      out.writeUTF(userId);
+    }
+    if (record == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(record.length);
+      out.write(record);
+    }
+  }
+
+  private static byte[] record(Event event) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writeEvent(out, event);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes a user's page if their schedule might have changed since it was last written.
+   */
+  private void save(User user) throws IOException {
+    Long saved = savedVersions.get(user.userId());
+    // Changes to a stray event do not change the version of the users it was left with
+    if (saved != null && saved == user.version() && !holdsStray(user)) {
+      return;
+    }
+    List<Event> schedule = user.userSchedule();
+    write(page(user.userId()), out -> {
+      out.writeInt(schedule.size());
+      for (Event event : schedule) {
+        writeEvent(out, event);
+      }
+    });
+    savedVersions.put(user.userId(), user.version());
+  }
+
+  private static void writeEvent(DataOutputStream out, Event event) throws IOException {
+    out.writeUTF(event.toString());
+    out.writeUTF(event.location());
+    out.writeBoolean(event.isOnline());
+    out.writeByte(event.startDay().getValue());
+    out.writeShort(event.startTime().toSecondOfDay() / 60);
+    out.writeByte(event.endDay().getValue());
+    out.writeShort(event.endTime().toSecondOfDay() / 60);
+    out.writeUTF(event.hostId());
+    List<User> invitees = event.invitees();
+    out.writeInt(invitees.size());
+    for (User invited : invitees) {
+      out.writeUTF(invited.userId());
+    }
+  }
+
+  /**
+   * Writes a file through a temporary file that replaces it once complete, so the file always
+   * holds either its old contents or the new ones.
+   */
+  private static void write(Path file, Contents contents) throws IOException {
+    Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+              Files.newOutputStream(temp), 1 << 16))) {
+        out.writeInt(MAGIC);
+        contents.write(out);
+      }
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private Path page(String userId) {
+    return directory.resolve(pages.get(userId) + ".page");
+  }
+
+  private static String[] userIds(Event event) {
+    List<User> invitees = event.invitees();
+    String[] userIds = new String[invitees.size() + 1];
+    userIds[0] = event.hostId();
+    for (int index = 0; index < invitees.size(); index++) {
+      userIds[index + 1] = invitees.get(index).userId();
+    }
+    return userIds;
+  }
+
+  /**
+   * The body of a file written by the store, after its header.
+   */
+  @FunctionalInterface
+  private interface Contents {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * An event none of whose users are in memory. Only the IDs of its users are kept, along with
+   * the event itself for as long as something else still holds it, so that reading it back in
+   * gives the same event.
+   */
+  private static final class ColdEvent extends WeakReference<Event> {
+    private final String[] userIds;
+    private final byte[] record; // The whole event if it might be on no schedule, or null
+
+    private ColdEvent(Event event, String[] userIds, byte[] record) {
+      super(event);
+      this.userIds = userIds;
+      this.record = record;
+    }
+  }
+
+  /**
+   * The events of the planner by name. Events with a user in memory are kept as they are, and
+   * the rest only as the IDs of their users, whose schedules are read in to find them.
+   */
+  private final class Events extends AbstractMap<String, Event> {
+    private final Map<String, Event> live = new HashMap<>();
+    private final Map<String, ColdEvent> cold = new HashMap<>();
+
+    @Override
+    public Event get(Object name) {
+      Event event = live.get(name);
+      ColdEvent demoted = cold.get(name);
+      if (event != null || demoted == null) {
+        return event;
+      }
+      for (String userId : demoted.userIds) {
+        User user = users.get(userId);
+        if (user != null) {
+          user.load(); // Makes the event live if it is on the user's schedule
+          event = live.get(name);
+          if (event != null) {
+            return event;
+          }
+        }
+      }
+      if (demoted.record != null) { // On none of its users' schedules
+        try {
+          return readEvent(new DataInputStream(new ByteArrayInputStream(demoted.record)));
+        } catch (IOException ex) {
+          throw new IllegalStateException("Could not read event " + name, ex);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+      return live.containsKey(name) || cold.containsKey(name);
+    }
+
+    @Override
+    public Event put(String name, Event event) {
+      cold.remove(name);
+      noteInvitations(name, userIds(event));
+      return live.put(name, event);
+    }
+
+    @Override
+    public Event remove(Object name) {
+      Event event = get(name);
+      live.remove(name);
+      cold.remove(name);
+      return event;
+    }
+
+    @Override
+    public int size() {
+      return live.size() + cold.size();
+    }
+
+    /**
+     * Keeps only the IDs of an event's users, once none of their schedules are in memory.
+     */
+    private void demote(Event event) {
+      String name = event.toString();
+      if (live.get(name) == event) {
+        live.remove(name);
+        cold.put(name, new ColdEvent(event, userIds(event), null)); // It is on the page
+      }
+    }
+
+    /**
+     * Reads in every schedule with an event on it that is not in memory.
+     */
+    @Override
+    public Set<Entry<String, Event>> entrySet() {
+      for (String name : new ArrayList<>(cold.keySet())) {
+        get(name);
+      }
+      return Collections.unmodifiableMap(live).entrySet();
+    }
+  }
+}
@@ -8,40 +8,67 @@ import java.util.List;
  */
 public class ValidateEvent {
 
+  protected static final int MINUTES_PER_DAY = 24 * 60;
+  protected static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
   /**
-   * Helper method for validating an event, or for an individual user to verify their own schedule.
+   * Converts a day and time into the number of minutes since Sunday 00:00.
    *
-   * @param evStart      the start day of the proposed event
-   * @param evEnd        the end day of the proposed event
-   * @param evStartTime  the start time of the proposed event
-   * @param evEndTime    the end time of the proposed event
-   * @param schStart     the start day of the scheduled event
-   * @param schEnd       the end day of the scheduled event
-   * @param schStartTime start time of the scheduled event
-   * @param schEndTime   end time of the scheduled event
-   * @return true if the event is valid, false otherwise
+   * @param day  the day as its DayOfWeek value
+   * @param time the time of day
+   * @return the minute of the week
    */
-  protected static boolean validTime(int evStart, int evEnd,
-                                     LocalTime evStartTime, LocalTime evEndTime,
-                                     int schStart, int schEnd,
-                                     LocalTime schStartTime, LocalTime schEndTime) {
+  protected static int minuteOfWeek(int day, LocalTime time) {
+    return (day - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+  }
 
-    if (evStart == evEnd && schStart == schEnd && evStart != schStart
-            && evStartTime.compareTo(evEndTime) < 0 && schStartTime.compareTo(schEndTime) < 0) {
-      return true;
+  /**
+   * Splits an event into the half-open minute-of-week ranges it occupies. An event that wraps
+   * into the next week occupies the end of the week and the beginning of it.
+   *
+   * @param event the event being split
+   * @return the start and end of each segment, in the order start1, end1, start2, end2
+   */
+  protected static int[] segments(Event event) {
+    if (event.endsNextWeek()) {
+      return new int[]{event.startMinute(), MINUTES_PER_WEEK, 0, event.endMinute()};
     }
-    return (schEnd < evStart
-            || (schEnd == evStart && schEndTime.compareTo(evStartTime) <= 0)
-            || (schStart == evEnd && schStartTime.compareTo(evEndTime) >= 0));
+    return new int[]{event.startMinute(), event.endMinute()};
+  }
+
+  /**
+   * Checks if two events take up any of the same minutes of the week. Events are allowed to end
+   * at the same time another event starts.
+   *
+   * @param event     the proposed event
+   * @param scheduled the scheduled event
+   * @return true if the events overlap, false otherwise
+   */
+  protected static boolean overlaps(Event event, Event scheduled) {
+    if (!nonZeroMinuteEvent(event) || !nonZeroMinuteEvent(scheduled)) {
+      return false;
+    }
+    if (event.endsNextWeek() && scheduled.endsNextWeek()) {
+      return true; // Both events take up the last minute of the week
+    }
+    if (event.endsNextWeek()) {
+      return scheduled.endMinute() > event.startMinute()
+              || scheduled.startMinute() < event.endMinute();
+    }
+    if (scheduled.endsNextWeek()) {
+      return event.endMinute() > scheduled.startMinute()
+              || event.startMinute() < scheduled.endMinute();
+    }
+    return event.startMinute() < scheduled.endMinute()
+            && scheduled.startMinute() < event.endMinute();
   }
 
   /**
    * Returns if the event spans more
    * than 0 minutes. Returns true if valid event, false if 0 minutes.
    */
-  protected static boolean nonZeroMinuteEvent(int startDay, int endDay,
-                                              LocalTime startTime, LocalTime endTime) {
-    return !startTime.equals(endTime) || startDay != endDay; // Event cannot be 0 minutes
+  protected static boolean nonZeroMinuteEvent(Event event) {
+    return event.startMinute() != event.endMinute(); // Event cannot be 0 minutes
   }
 
   /**
@@ -52,32 +79,11 @@ public class ValidateEvent {
    * @return true if the timing of the event is valid, false otherwise
    */
   protected static boolean validEvent(Event event, List<Event> schedule) {
-    // Get the start and end time info for the proposed event
-    int evStart = event.dayInfo().get(0);
-    int evEnd = event.dayInfo().get(1);
-    LocalTime evStartTime = event.timeInfo().get(0);
-    LocalTime evEndTime = event.timeInfo().get(1);
     for (Event scheduled : schedule) {
-      int schStart = scheduled.dayInfo().get(0);
-      int schEnd = scheduled.dayInfo().get(1);
-      LocalTime schStartTime = scheduled.timeInfo().get(0);
-      LocalTime schEndTime = scheduled.timeInfo().get(1);
-
-      boolean nextWeek = (schStart > schEnd
-              || (schStart == schEnd && schStartTime.isAfter(schEndTime)));
-      if (nextWeek) {
-        schEnd = 6;
-        schEndTime = LocalTime.of(23, 59);
-      }
-
-      // Check if the times are valid.
-      if (!validTime(evStart, evEnd, evStartTime, evEndTime,
-              schStart, schEnd, schStartTime, schEndTime)) {
+      if (overlaps(event, scheduled)) {
         return false;
       }
     }
     return true;
   }
 }
-
-
@@ -3,7 +3,6 @@ package cs3500.view;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.time.LocalTime;
-import java.util.List;
 
 import cs3500.model.Event;
 
@@ -35,16 +34,15 @@ public class DrawableEvent {
     this.event = event;
     this.host = host;
 
-    List<String> eventInfo = event.eventInfo();
-    this.name = eventInfo.get(0);
-    this.location = eventInfo.get(5);
-    this.online = Boolean.parseBoolean(eventInfo.get(6));
+    this.name = event.toString();
+    this.location = event.location();
+    this.online = event.isOnline();
 
-    this.startDay = event.dayInfo().get(0);
-    this.endDay = event.dayInfo().get(1);
+    this.startDay = event.startDay().getValue();
+    this.endDay = event.endDay().getValue();
 
-    this.startTime = event.timeInfo().get(0);
-    this.endTime = event.timeInfo().get(1);
+    this.startTime = event.startTime();
+    this.endTime = event.endTime();
   }
 
   protected boolean containsPoint(Point p) {
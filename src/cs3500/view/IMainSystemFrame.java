@@ -31,6 +31,15 @@ public interface IMainSystemFrame {
    */
   void addFeatures(Features features);
 
+  /**
+   * Shows how far along an import of a folder of schedules is, and hides it once every file is
+   * done. Called on the event dispatch thread.
+   *
+   * @param filesDone  the number of files done so far
+   * @param totalFiles the number of files being imported
+   */
+  void importProgress(int filesDone, int totalFiles);
+
   /**
    * Displays an error message.
    * @param message the message to be displayed
@@ -11,6 +11,7 @@ import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import cs3500.controller.Features;
@@ -25,7 +26,9 @@ public class MainSystemFrame extends JFrame implements IMainSystemFrame {
   private final IReadOnlyCentralSystem model;
   private IMainPanel schedulePanel;
   private JMenuItem loadMenuItem;
+  private JMenuItem loadFolderMenuItem;
   private JMenuItem saveMenuItem;
+  private JProgressBar importBar; // Shown while a folder is being imported
 
   /**
    * Creates a GUI view of the schedule with no user selected initially.
@@ -42,15 +45,18 @@ public class MainSystemFrame extends JFrame implements IMainSystemFrame {
     setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
     setupMenuBar();
     setupSchedulePanel();
+    setupImportBar();
   }
 
   private void setupMenuBar() {
     JMenuBar menuBar = new JMenuBar();
     JMenu fileMenu = new JMenu("File");
     loadMenuItem = new JMenuItem("Load Schedule");
+    loadFolderMenuItem = new JMenuItem("Load Folder");
     saveMenuItem = new JMenuItem("Save Schedule");
 
     fileMenu.add(loadMenuItem);
+    fileMenu.add(loadFolderMenuItem);
     fileMenu.add(saveMenuItem);
     menuBar.add(fileMenu);
     setJMenuBar(menuBar);
@@ -70,6 +76,19 @@ public class MainSystemFrame extends JFrame implements IMainSystemFrame {
     return null;
   }
 
+  private File loadFolder() {
+    JFileChooser dirChooser = new JFileChooser(".");
+    dirChooser.setDialogTitle("Select a directory of schedules to load");
+    dirChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+    dirChooser.setAcceptAllFileFilterUsed(false);
+
+    int result = dirChooser.showOpenDialog(this);
+    if (result == JFileChooser.APPROVE_OPTION) {
+      return dirChooser.getSelectedFile();
+    }
+    return null;
+  }
+
   private File saveSchedule() throws IllegalArgumentException {
     JFileChooser dirChooser = new JFileChooser(".");
     dirChooser.setDialogTitle("Select a directory to save schedules");
@@ -90,6 +109,13 @@ public class MainSystemFrame extends JFrame implements IMainSystemFrame {
     ((Component) schedulePanel).setVisible(true);
   }
 
+  private void setupImportBar() {
+    importBar = new JProgressBar();
+    importBar.setStringPainted(true);
+    importBar.setVisible(false);
+    getContentPane().add(importBar, BorderLayout.SOUTH);
+  }
+
   @Override
   public void updateUsers() {
     schedulePanel.updateUsers();
@@ -126,6 +152,12 @@ public class MainSystemFrame extends JFrame implements IMainSystemFrame {
         throw new IllegalStateException("Error: " + ex.getMessage());
       }
     });
+    loadFolderMenuItem.addActionListener(e -> {
+      File selectedDir = loadFolder();
+      if (selectedDir != null) {
+        features.uploadDirectory(selectedDir);
+      }
+    });
     saveMenuItem.addActionListener(e -> {
       try {
         File selectedDir = Objects.requireNonNull(saveSchedule());
@@ -137,6 +169,17 @@ public class MainSystemFrame extends JFrame implements IMainSystemFrame {
     });
   }
 
+  @Override
+  public void importProgress(int filesDone, int totalFiles) {
+    boolean importing = filesDone < totalFiles;
+    importBar.setMaximum(totalFiles);
+    importBar.setValue(filesDone);
+    importBar.setString("Imported " + filesDone + " of " + totalFiles + " files");
+    importBar.setVisible(importing);
+    loadFolderMenuItem.setEnabled(!importing); // One import at a time
+    validate();
+  }
+
   @Override
   public void errorMessage(String message) {
     JOptionPane.showMessageDialog(this, message);
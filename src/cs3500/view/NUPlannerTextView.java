@@ -5,6 +5,7 @@ import java.util.Map;
 
 import cs3500.model.DayOfWeek;
 import cs3500.model.ICentralSystem;
+import cs3500.model.PlannerState;
 
 /**
  * The view for our NUPlanner schedule. It can display a string representation of every user's
@@ -25,9 +26,10 @@ public class NUPlannerTextView implements PlannerView {
   @Override
   public String textView() {
     StringBuilder view = new StringBuilder();
-    Map<List<String>, List<String>> eventInfo = system.userSchedule(true);
-    for (String id : system.findAllUsers()) {
-      system.setUser(id);
+    // Read from one snapshot, so the schedules are all as they were at the same moment
+    PlannerState state = system.snapshot();
+    Map<List<String>, List<String>> eventInfo = state.allSchedules();
+    for (String id : state.findAllUsers()) {
       // Write the user info
       writeMessage(view, "User: " + id, false);
       for (DayOfWeek day : DayOfWeek.values()) {
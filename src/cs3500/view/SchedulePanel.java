@@ -10,7 +10,6 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -35,6 +34,8 @@ public class SchedulePanel extends JPanel implements IMainPanel {
   private final List<DrawableEvent> drawableEvents = new ArrayList<>();
   private static final int ROWS = 24; // 24 hours in a day; 24 rows
   private static final int COLS = 7; // 7 days in a week
+  private static final int MINUTES_PER_DAY = 24 * 60;
+  private static final int MINUTES_PER_WEEK = COLS * MINUTES_PER_DAY;
 
   private JComboBox<String> userDropdown;
   private JButton createEventButton;
@@ -166,32 +167,40 @@ public class SchedulePanel extends JPanel implements IMainPanel {
     drawableEvents.clear();
 
     for (Event event : displayUser.userSchedule()) {
-      int startDay = event.dayInfo().get(0) - 1;
-      int endDay = event.dayInfo().get(1) - 1;
-      LocalTime startTime = event.timeInfo().get(0);
-      LocalTime endTime = event.timeInfo().get(1);
-
       g2d.setColor(Color.RED);
-      boolean nextWeek = (startDay > endDay
-              || (startDay == endDay && startTime.isAfter(endTime)));
-      if (nextWeek) {
-        endDay = 6;
-        endTime = LocalTime.of(23, 59);
+      boolean host = event.hostInfo().equals(displayUser);
+      if (event.endsNextWeek()) {
+        // Draw the part before the end of the week and the part that wraps to the start of it
+        drawSegment(g2d, event, host, event.startMinute(), MINUTES_PER_WEEK);
+        drawSegment(g2d, event, host, 0, event.endMinute());
+      } else {
+        drawSegment(g2d, event, host, event.startMinute(), event.endMinute());
       }
+    }
+  }
 
-      int columnWidth = getWidth() / COLS;
+  /**
+   * Draws the part of an event between two minutes of the week, one rectangle per day.
+   *
+   * @param g2d   the graphics being drawn on
+   * @param event the event being drawn
+   * @param host  whether the displayed user is the host of the event
+   * @param start the minute of the week the part starts
+   * @param end   the minute of the week the part ends
+   */
+  private void drawSegment(Graphics2D g2d, Event event, boolean host, int start, int end) {
+    int columnWidth = getWidth() / COLS;
+    int startDay = start / MINUTES_PER_DAY;
+    int endDay = Math.min(end / MINUTES_PER_DAY, COLS - 1);
 
-      for (int day = startDay; day <= endDay; day++) {
-        int currentColumn = day % COLS;
-        int startY = (day == startDay) ? calcOnScreenY(startTime) : 0;
-        int endY = (day == endDay) ? calcOnScreenY(endTime) : getHeight() - 40;
-        boolean host = event.hostInfo().equals(displayUser);
+    for (int day = startDay; day <= endDay; day++) {
+      int startY = (day == startDay) ? calcOnScreenY(start - day * MINUTES_PER_DAY) : 0;
+      int endY = (day == endDay) ? calcOnScreenY(end - day * MINUTES_PER_DAY) : getHeight() - 40;
 
-        Rectangle rect = new Rectangle(currentColumn * columnWidth, startY,
-                columnWidth, endY - startY);
-        g2d.fillRect(rect.x, rect.y, rect.width, rect.height);
-        drawableEvents.add(new DrawableEvent(rect, event, host));
-      }
+      Rectangle rect = new Rectangle(day * columnWidth, startY,
+              columnWidth, endY - startY);
+      g2d.fillRect(rect.x, rect.y, rect.width, rect.height);
+      drawableEvents.add(new DrawableEvent(rect, event, host));
     }
   }
 
@@ -224,8 +233,8 @@ public class SchedulePanel extends JPanel implements IMainPanel {
    * fillRect requires the x- and y-coordinates of the
    * top left corner to be ints.
    */
-  private int calcOnScreenY(LocalTime givenTime) {
-    float numHoursSinceStartOfDay = givenTime.getHour() + (givenTime.getMinute() / 60f);
+  private int calcOnScreenY(int minuteOfDay) {
+    float numHoursSinceStartOfDay = minuteOfDay / 60f;
     // Adjust drawableHeight to consider spaceReservedForButtons.
     int drawableHeight = getHeight() - 40;
     return (int) (drawableHeight * numHoursSinceStartOfDay / 24);
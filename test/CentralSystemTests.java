@@ -1,22 +1,36 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+import cs3500.model.ConcurrentPlanner;
 import cs3500.model.DayOfWeek;
 import cs3500.model.Event;
 import cs3500.model.ICentralSystem;
+import cs3500.model.JournaledPlanner;
 import cs3500.model.NUPlanner;
+import cs3500.model.PlannerCommand;
+import cs3500.model.PlannerSession;
+import cs3500.model.PlannerState;
+import cs3500.model.PlannerSnapshot;
+import cs3500.model.TieredPlanner;
 import cs3500.model.User;
 import cs3500.view.NUPlannerTextView;
 import cs3500.view.PlannerView;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 
 /**
@@ -151,6 +165,55 @@ public class CentralSystemTests {
     assertEquals(centralSchedule.findEventByName("new name").eventInfo(), expected);
   }
 
+  @Test
+  public void renameEvent() {
+    centralSchedule.addUser(jonah);
+    Map<String, String> changes = new HashMap<>();
+    changes.put("name", "party");
+    changes.put("location", "Snell Library");
+    changes.put("online", "true");
+    changes.put("start-time", "1930");
+    changes.put("end-time", "2100");
+    changes.put("start", "wednesday");
+    changes.put("end", "wednesday");
+    changes.put("invited", "");
+
+    // Cannot take the name of another event in the system
+    assertThrows(IllegalArgumentException.class,
+        () -> centralSchedule.modifyEvent(pianoLesson, changes));
+    assertEquals(pianoLesson, centralSchedule.findEventByName("Piano Lesson"));
+
+    // The event can be found under its new name only
+    changes.put("name", "Piano Recital");
+    centralSchedule.modifyEvent(pianoLesson, changes);
+    assertNull(centralSchedule.findEventByName("Piano Lesson"));
+    assertEquals(pianoLesson, centralSchedule.findEventByName("Piano Recital"));
+  }
+
+  @Test
+  public void failedModifyChangesNothing() {
+    centralSchedule.addUser(jonah);
+    centralSchedule.addUser(david);
+    List<String> before = pianoLesson.eventInfo();
+    Map<String, String> changes = new HashMap<>();
+    changes.put("name", "Piano Recital");
+    changes.put("location", " ");
+    changes.put("online", "false");
+    changes.put("start-time", "1000");
+    changes.put("end-time", "1100");
+    changes.put("start", "monday");
+    changes.put("end", "monday");
+    changes.put("invited", "david");
+
+    // The blank location is only found after the invite, times, and name would have changed
+    assertThrows(IllegalArgumentException.class,
+        () -> centralSchedule.modifyEvent(pianoLesson, changes));
+    assertEquals(before, pianoLesson.eventInfo());
+    assertEquals(List.of(jonah), pianoLesson.invitees());
+    assertEquals(pianoLesson, centralSchedule.findEventByName("Piano Lesson"));
+    assertNull(centralSchedule.findEventByName("Piano Recital"));
+  }
+
   @Test
   public void allUsers() {
     List<String> expected = List.of("jonah", "david");
@@ -211,6 +274,215 @@ public class CentralSystemTests {
     assertNull(centralSchedule.findEventsByTime("Monday", "1111"));
   }
 
+  @Test
+  public void sessionsReadWithoutSelectingUser() {
+    centralSchedule.addUser(jonah);
+    centralSchedule.addUser(david);
+    PlannerSession session = centralSchedule.session("jonah");
+    assertEquals(List.of(pianoLesson), session.findEventsByTime("Wednesday", "2059"));
+    assertEquals(centralSchedule.userSchedule("jonah"), session.userSchedule());
+    assertEquals(2, session.userSchedule().size());
+    // Reading every schedule, or printing them, leaves the selected user alone
+    centralSchedule.userSchedule(true);
+    view.textView();
+    assertEquals("admin", centralSchedule.currentUser());
+    assertThrows(IllegalArgumentException.class, () -> centralSchedule.session("teacher lee"));
+  }
+
+  @Test
+  public void stateIsNotChangedByLaterChanges() {
+    centralSchedule.addUser(jonah);
+    PlannerState before = centralSchedule.snapshot();
+    User sam = new User("sam");
+    centralSchedule.addUser(david);
+    centralSchedule.addUser(sam);
+    centralSchedule.updateEventInvited(pianoLesson, sam);
+    PlannerState after = centralSchedule.snapshot();
+
+    assertEquals(List.of("jonah"), before.findAllUsers());
+    assertEquals(List.of("jonah"), before.findEventByName("Piano Lesson").invitees());
+    assertNull(before.findEventByName("Violin Lesson"));
+    assertEquals(List.of("jonah", "david", "sam"), after.findAllUsers());
+    assertEquals(List.of("jonah", "sam"), after.findEventByName("Piano Lesson").invitees());
+    assertEquals(centralSchedule.userSchedule(true), after.allSchedules());
+    assertEquals(sam.version(), after.userVersion("sam"));
+    // Nothing changed in between, so the same state is handed out
+    assertSame(after, centralSchedule.snapshot());
+  }
+
+  @Test
+  public void batchIsAllOrNothing() {
+    centralSchedule.addUser(jonah);
+    centralSchedule.addUser(david);
+    centralSchedule.snapshot();
+    Map<String, String> changes = new HashMap<>();
+    changes.put("name", "Study Group");
+    changes.put("location", "Curry Center");
+    changes.put("online", "true");
+    changes.put("start-time", "1200");
+    changes.put("end-time", "1300");
+    changes.put("start", "monday");
+    changes.put("end", "monday");
+    changes.put("invited", "");
+
+    // Later commands see the event created and renamed by earlier ones
+    centralSchedule.applyBatch(List.of(
+            PlannerCommand.create("jonah", "Study", "Snell Library", false, LocalTime.of(10, 0),
+                    LocalTime.of(11, 0), DayOfWeek.MONDAY, DayOfWeek.MONDAY, List.of("david")),
+            PlannerCommand.modify("Study", changes),
+            PlannerCommand.remove("Study Group", "david"),
+            PlannerCommand.remove("party", "david")));
+    PlannerState state = centralSchedule.snapshot();
+    assertNull(centralSchedule.findEventByName("Study"));
+    assertEquals(List.of("Study Group", "Monday", "1200", "Monday", "1300", "Curry Center",
+            "true", "jonah"), state.findEventByName("Study Group").eventInfo());
+    assertEquals(List.of(), state.findEventByName("Study Group").invitees());
+    assertEquals(List.of("Violin Lesson"), centralSchedule.findUserById("david").userSchedule()
+            .stream().map(Event::toString).collect(Collectors.toList()));
+
+    // The last command fails, so the move before it is undone and nothing is published
+    changes.put("start", "tuesday");
+    changes.put("end", "tuesday");
+    assertThrows(IllegalArgumentException.class, () -> centralSchedule.applyBatch(List.of(
+            PlannerCommand.modify("Study Group", changes),
+            PlannerCommand.remove("Violin Lesson", "jonah"))));
+    assertEquals("Monday", centralSchedule.findEventByName("Study Group").eventInfo().get(1));
+    assertEquals(1, centralSchedule.findEventsByTime("jonah", "monday", "1230").size());
+    assertNull(centralSchedule.findEventsByTime("jonah", "tuesday", "1230"));
+    assertSame(state, centralSchedule.snapshot());
+  }
+
+  @Test
+  public void snapshotRoundTrip() throws IOException {
+    centralSchedule.addUser(jonah);
+    centralSchedule.addUser(david);
+    centralSchedule.setUser("david");
+    Path file = Files.createTempFile("planner", ".snapshot");
+    PlannerSnapshot.save((NUPlanner) centralSchedule, file);
+
+    NUPlanner loaded = PlannerSnapshot.load(file);
+    assertEquals(view.textView(), new NUPlannerTextView(loaded).textView());
+    assertEquals("david", loaded.currentUser());
+    assertEquals(centralSchedule.findAllUsers(), loaded.findAllUsers());
+    // Events are shared between the schedules of their users, as they were when saved
+    Event loadedParty = loaded.findEventByName("party");
+    assertEquals(party.eventInfo(), loadedParty.eventInfo());
+    assertSame(loadedParty, loaded.findUserById("david").findEventByName("party"));
+    // Users who were only invited to events keep their schedules too
+    assertEquals(pianoLesson.hostInfo().userSchedule().size(),
+            loaded.findEventByName("Piano Lesson").hostInfo().userSchedule().size());
+
+    // Counts that cannot fit in the file are refused before anything is allocated for them
+    byte[] saved = Files.readAllBytes(file);
+    for (int count : new int[]{-1, Integer.MAX_VALUE}) {
+      ByteBuffer.wrap(saved).putInt(16, count); // The number of strings, after the header
+      Files.write(file, saved);
+      assertThrows(IOException.class, () -> PlannerSnapshot.load(file));
+    }
+
+    Files.write(file, new byte[]{1, 2, 3});
+    assertThrows(IOException.class, () -> PlannerSnapshot.load(file));
+  }
+
+  @Test
+  public void journalReplay() throws IOException {
+    Path directory = Files.createTempDirectory("journal");
+    Path snapshot = directory.resolve("planner.snapshot");
+    Path journal = directory.resolve("planner.journal");
+    JournaledPlanner planner = JournaledPlanner.open(snapshot, journal, 4, 0);
+    planner.addUser(jonah);
+    planner.addUser(david);
+    planner.setUser("david");
+    planner.createEvent("lunch", "cafe", false, LocalTime.of(12, 0), LocalTime.of(13, 0),
+            DayOfWeek.FRIDAY, DayOfWeek.FRIDAY, david, List.of(jonah));
+    planner.checkpoint();
+    // Changes after the checkpoint are only in the journal
+    planner.updateEventInvited(planner.findEventByName("lunch"), jonah);
+    Map<String, String> changes = new HashMap<>(Map.of("name", "brunch", "location", "cafe",
+            "online", "false", "start-time", "1000", "end-time", "1100", "start", "friday",
+            "end", "friday", "invited", ""));
+    planner.modifyEvent(planner.findEventByName("lunch"), changes);
+    String expected = new NUPlannerTextView(planner).textView();
+    planner.close();
+    // A record cut off by a crash is dropped
+    Files.write(journal, new byte[]{0, 0, 0, 9, 1}, StandardOpenOption.APPEND);
+
+    JournaledPlanner reopened = JournaledPlanner.open(snapshot, journal, 1, 0);
+    assertEquals(expected, new NUPlannerTextView(reopened).textView());
+    assertNull(reopened.findEventByName("lunch"));
+    assertEquals(List.of(), reopened.findEventByName("brunch").invitees());
+    reopened.close();
+  }
+
+  @Test
+  public void tieredPlannerPagesSchedules() throws IOException {
+    Path directory = Files.createTempDirectory("tiered");
+    // With no budget, every schedule but the selected user's is paged out after each call
+    TieredPlanner planner = TieredPlanner.open(directory, 0);
+    planner.addUser(jonah);
+    planner.addUser(david);
+    planner.setUser("david");
+    planner.createEvent("lunch", "cafe", false, LocalTime.of(12, 0), LocalTime.of(13, 0),
+            DayOfWeek.FRIDAY, DayOfWeek.FRIDAY, david, List.of(jonah));
+    Event lunch = planner.findEventByName("lunch");
+    planner.setUser("jonah");
+    // Changing the event reads david's schedule back in first, and keeps the same event
+    Map<String, String> changes = new HashMap<>(Map.of("name", "brunch", "location", "cafe",
+            "online", "false", "start-time", "1000", "end-time", "1100", "start", "friday",
+            "end", "friday", "invited", ""));
+    planner.modifyEvent(lunch, changes);
+    assertSame(lunch, planner.findEventByName("brunch"));
+    String expected = new NUPlannerTextView(planner).textView();
+    planner.close();
+
+    TieredPlanner reopened = TieredPlanner.open(directory, 0);
+    assertEquals(List.of("jonah", "david"), reopened.findAllUsers());
+    assertEquals(expected, new NUPlannerTextView(reopened).textView());
+    assertNull(reopened.findEventByName("lunch"));
+    assertEquals(List.of(jonah), reopened.findEventByName("brunch").invitees());
+    reopened.close();
+  }
+
+  @Test
+  public void concurrentPlannerTogglesInviteesInParallel() throws InterruptedException {
+    ConcurrentPlanner planner = new ConcurrentPlanner();
+    User host = new User("host");
+    planner.addUser(host);
+    List<User> guests = new ArrayList<>();
+    for (int guest = 0; guest < 8; guest++) {
+      guests.add(new User("guest" + guest));
+      planner.addUser(guests.get(guest));
+    }
+    planner.setUser("host");
+    planner.createEvent("party", "hall", false, LocalTime.of(18, 0), LocalTime.of(20, 0),
+            DayOfWeek.SATURDAY, DayOfWeek.SATURDAY, host, guests);
+    Event party = planner.findEventByName("party");
+    // Each guest leaves and rejoins the party while the whole planner is read
+    List<Thread> threads = new ArrayList<>();
+    for (User guest : guests) {
+      threads.add(new Thread(() -> {
+        for (int toggle = 0; toggle < 1000; toggle++) {
+          planner.updateEventInvited(party, guest);
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      for (int read = 0; read < 1000; read++) {
+        planner.userSchedule(true);
+      }
+    }));
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(guests.size(), party.invitees().size());
+    for (User guest : guests) {
+      assertEquals(List.of(party), guest.userSchedule());
+    }
+  }
+
   /**
    * TESTING FOR VIEW COMPONENT.
    */
@@ -1,11 +1,42 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
+import cs3500.controller.AnyTimeSchedulingStrategy;
+import cs3500.controller.ExportSummary;
+import cs3500.controller.FileOperations;
 import cs3500.controller.IPlannerController;
+import cs3500.controller.PlannerServer;
+import cs3500.controller.ImportSummary;
+import cs3500.controller.QuorumSchedulingStrategy;
+import cs3500.controller.QuorumSlot;
+import cs3500.controller.ScheduleExporter;
+import cs3500.controller.ScheduleImporter;
+import cs3500.controller.SchedulingRequest;
+import cs3500.controller.SchedulingResult;
+import cs3500.controller.SchedulingStrategy;
 import cs3500.controller.TextUI;
+import cs3500.controller.WorkHoursSchedulingStrategy;
+import cs3500.model.ConcurrentPlanner;
 import cs3500.model.DayOfWeek;
 import cs3500.model.Event;
 import cs3500.model.ICentralSystem;
@@ -15,9 +46,12 @@ import cs3500.model.User;
 import cs3500.view.NUPlannerTextView;
 import cs3500.view.PlannerView;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test class for testing controller functionality including reading and writing to XML files.
@@ -91,4 +125,421 @@ public class ControllerTests {
         () -> controller.uploadSchedule("jonah.xml"));
     assertNotNull(system.findUserById(jonah.userId()));
   }
+
+  @Test
+  public void uploadSavedSchedule() throws ScheduleWriteException {
+    system.addUser(jonah);
+    controller.saveSchedule("jonah.xml", "jonah");
+    ICentralSystem loaded = new NUPlanner();
+    new TextUI(loaded).uploadSchedule("jonah.xml");
+    assertEquals(view.textView(), new NUPlannerTextView(loaded).textView());
+    // Files that do not exist cannot be read
+    assertThrows(IllegalStateException.class,
+        () -> new TextUI(new NUPlanner()).uploadSchedule("missing.xml"));
+  }
+
+  @Test
+  public void saveEscapesText() throws ScheduleWriteException {
+    system.addUser(jonah);
+    system.setUser("jonah");
+    system.createEvent("R&D <sync>", "\"Lab\"", false, LocalTime.of(9, 0), LocalTime.of(10, 0),
+            DayOfWeek.FRIDAY, DayOfWeek.FRIDAY, jonah, new ArrayList<>());
+    controller.saveSchedule("jonah.xml", "jonah");
+    ICentralSystem loaded = new NUPlanner();
+    new TextUI(loaded).uploadSchedule("jonah.xml");
+    assertEquals(system.findEventByName("R&D <sync>").eventInfo(),
+            loaded.findEventByName("R&D <sync>").eventInfo());
+  }
+
+  @Test
+  public void saveLeavesValidTextAsItIs() throws ScheduleWriteException, IOException {
+    system.addUser(jonah);
+    system.setUser("jonah");
+    system.createEvent("Say \"hi\" > bye", "Room > 5", false, LocalTime.of(9, 0),
+            LocalTime.of(10, 0), DayOfWeek.FRIDAY, DayOfWeek.FRIDAY, jonah, new ArrayList<>());
+    controller.saveSchedule("jonah.xml", "jonah");
+    // Quotes and greater-than signs are already valid in element text, so they are not escaped
+    String saved = new String(Files.readAllBytes(new File("jonah.xml").toPath()),
+            StandardCharsets.UTF_8);
+    assertTrue(saved.contains("<name>Say \"hi\" > bye</name>"));
+    assertTrue(saved.contains("<place>Room > 5</place>"));
+  }
+
+  @Test
+  public void plannerWritesEventsOnce() throws ScheduleWriteException, IOException {
+    User david = new User("david");
+    system.addUser(jonah);
+    system.addUser(david);
+    system.addUser(new User("carol"));
+    system.setUser("jonah");
+    system.createEvent("lecture", "hall", false, LocalTime.of(9, 0), LocalTime.of(10, 0),
+            DayOfWeek.FRIDAY, DayOfWeek.FRIDAY, jonah, new ArrayList<>(List.of(david)));
+    FileOperations.savePlanner(system, "planner.xml");
+    String saved = Files.readString(new File("planner.xml").toPath());
+    assertEquals(2, saved.split("<event>", -1).length - 1);
+
+    ICentralSystem loaded = new NUPlanner();
+    FileOperations.uploadPlanner(loaded, "planner.xml");
+    assertEquals("admin", loaded.currentUser());
+    for (String userId : List.of("jonah", "david", "carol")) {
+      assertEquals(system.findUserById(userId).userSchedule().stream()
+                      .map(Event::eventInfo).collect(Collectors.toList()),
+              loaded.findUserById(userId).userSchedule().stream()
+                      .map(Event::eventInfo).collect(Collectors.toList()));
+    }
+    // Both users share one copy of the event
+    assertEquals(loaded.findEventByName("lecture"),
+            loaded.findUserById("david").userSchedule().get(0));
+    // Schedule files are not planner files
+    assertThrows(IllegalStateException.class,
+        () -> FileOperations.uploadPlanner(new NUPlanner(), "prof.xml"));
+    Files.writeString(new File("planner.xml").toPath(),
+            "<planner><users><user id=\"\"/></users></planner>");
+    assertThrows(IllegalStateException.class,
+        () -> FileOperations.uploadPlanner(new NUPlanner(), "planner.xml"));
+  }
+
+  @Test
+  public void importDirectory() throws ScheduleWriteException, IOException {
+    File directory = Files.createTempDirectory("schedules").toFile();
+    system.addUser(jonah);
+    system.addUser(new User("david"));
+    controller.saveSchedule(new File(directory, "a.xml").getPath(), "jonah");
+    controller.saveSchedule(new File(directory, "b.xml").getPath(), "david");
+    Files.writeString(new File(directory, "c.xml").toPath(), "<schedule id=\"x\"><event>");
+    Files.writeString(new File(directory, "ab.xml").toPath(), "<schedule></schedule>");
+
+    ICentralSystem loaded = new NUPlanner();
+    List<Integer> progress = new ArrayList<>();
+    ImportSummary summary = new ScheduleImporter(loaded, 4, 2)
+            .importDirectory(directory, (filesDone, totalFiles) -> progress.add(filesDone));
+    assertEquals(2, summary.imported());
+    assertEquals(Map.of("ab.xml", "The schedule has no user ID",
+            "c.xml", "Error in parsing the file"), summary.failures());
+    assertEquals(List.of(1, 2, 3, 4), progress);
+    assertEquals(List.of("jonah", "david"), loaded.findAllUsers());
+    assertEquals(system.findUserById("jonah").userSchedule(),
+            loaded.findUserById("jonah").userSchedule());
+  }
+
+  @Test
+  public void exportAll() throws ScheduleWriteException, IOException {
+    File directory = Files.createTempDirectory("export").toFile();
+    system.addUser(jonah);
+    system.addUser(new User("david"));
+    system.setUser("david");
+    ExportSummary summary = new ScheduleExporter(system, 4).exportAll(directory);
+    // The selected user is left alone
+    assertEquals("david", system.currentUser());
+    assertEquals(List.of("jonah.xml", "david.xml"),
+            new ArrayList<>(summary.bytesWritten().keySet()));
+    assertEquals(Map.of(), summary.failures());
+
+    controller.saveSchedule("jonah.xml", "jonah");
+    byte[] saved = Files.readAllBytes(new File("jonah.xml").toPath());
+    assertArrayEquals(saved, Files.readAllBytes(new File(directory, "jonah.xml").toPath()));
+    assertEquals(saved.length, (long) summary.bytesWritten().get("jonah.xml"));
+  }
+
+  @Test
+  public void exportChangedSkipsSavedUsers() throws IOException {
+    File directory = Files.createTempDirectory("export").toFile();
+    User david = new User("david");
+    system.addUser(jonah);
+    system.addUser(david);
+    ScheduleExporter exporter = new ScheduleExporter(system, 2);
+    assertEquals(2, exporter.exportChanged(directory).bytesWritten().size());
+    assertEquals(Map.of(), exporter.exportChanged(directory).bytesWritten());
+
+    system.setUser("david");
+    system.createEvent("lunch", "cafe", false, LocalTime.of(12, 0), LocalTime.of(13, 0),
+            DayOfWeek.FRIDAY, DayOfWeek.FRIDAY, david, new ArrayList<>());
+    assertEquals(List.of("david.xml"),
+            new ArrayList<>(exporter.exportChanged(directory).bytesWritten().keySet()));
+    // Every user is saved to a new directory
+    assertEquals(2, exporter.exportChanged(
+            Files.createTempDirectory("export").toFile()).bytesWritten().size());
+  }
+
+  @Test
+  public void strategiesSkipBusyTime() {
+    system.addUser(jonah);
+    system.setUser("jonah");
+    List<String> info = List.of("meeting", "office", "false");
+    // Jonah is busy from Monday 0001 to Tuesday 0201
+    SchedulingStrategy anyTime = new AnyTimeSchedulingStrategy(system);
+    assertEquals(List.of("meeting", "Sunday", "0000", "Sunday", "0100", "office", "false",
+            "jonah"), anyTime.findTime(60, List.of(), info).eventInfo());
+    assertEquals(List.of("meeting", "Tuesday", "0201", "Wednesday", "0301", "office", "false",
+            "jonah"), anyTime.findTime(1500, List.of(), info).eventInfo());
+
+    SchedulingStrategy workHours = new WorkHoursSchedulingStrategy(system);
+    assertEquals(List.of("meeting", "Tuesday", "0900", "Tuesday", "1000", "office", "false",
+            "jonah"), workHours.findTime(60, List.of(), info).eventInfo());
+  }
+
+  @Test
+  public void anyTimeEndsOnSaturday() {
+    system.addUser(jonah);
+    system.setUser("jonah");
+    system.createEvent("week", "office", false, LocalTime.of(2, 1), LocalTime.of(12, 0),
+            DayOfWeek.TUESDAY, DayOfWeek.SATURDAY, jonah, new ArrayList<>());
+    // The only open time left is Saturday afternoon and Sunday
+    Event found = new AnyTimeSchedulingStrategy(system).findTime(300, List.of(),
+            List.of("meeting", "office", "false"));
+    assertEquals(List.of("meeting", "Sunday", "0000", "Sunday", "0500", "office", "false",
+            "jonah"), found.eventInfo());
+    found = new AnyTimeSchedulingStrategy(system).findTime(1500, List.of(),
+            List.of("meeting", "office", "false"));
+    assertEquals(List.of("meeting", "Saturday", "1200", "Sunday", "1300", "office", "false",
+            "jonah"), found.eventInfo());
+  }
+
+  @Test
+  public void parallelSearchMatchesSequential() {
+    system.addUser(jonah);
+    system.setUser("jonah");
+    List<String> info = List.of("meeting", "office", "false");
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (int duration : List.of(30, 1500, 4000)) {
+      assertEquals(new AnyTimeSchedulingStrategy(system).findTime(duration, List.of(), info)
+                      .eventInfo(),
+              new AnyTimeSchedulingStrategy(system, pool).findTime(duration, List.of(), info)
+                      .eventInfo());
+    }
+    assertEquals(new WorkHoursSchedulingStrategy(system).findTime(480, List.of(), info)
+                    .eventInfo(),
+            new WorkHoursSchedulingStrategy(system, pool).findTime(480, List.of(), info)
+                    .eventInfo());
+  }
+
+  @Test
+  public void batchScheduling() {
+    system.addUser(jonah);
+    system.addUser(new User("david"));
+    system.setUser("jonah");
+    SchedulingStrategy anyTime = new AnyTimeSchedulingStrategy(system);
+    List<SchedulingRequest> requests = List.of(
+            new SchedulingRequest(60, List.of("first", "office", "false"), List.of("david")),
+            new SchedulingRequest(60, List.of("second", "office", "false"), List.of()),
+            new SchedulingRequest(60, List.of("third", "office", "false"), List.of("nobody")));
+    List<SchedulingResult> results = anyTime.scheduleAll(requests,
+            SchedulingStrategy.BatchOrder.IN_ORDER);
+
+    // Each placed event is added to the model before the next request is placed
+    assertEquals(List.of("first", "Sunday", "0000", "Sunday", "0100", "office", "false",
+            "jonah"), results.get(0).event().eventInfo());
+    assertEquals(List.of("second", "Sunday", "0100", "Sunday", "0200", "office", "false",
+            "jonah"), results.get(1).event().eventInfo());
+    assertEquals(results.get(0).event(), system.findEventByName("first"));
+    assertFalse(results.get(2).isPlaced());
+    assertEquals("User is not in the system: nobody", results.get(2).reason());
+    // Malformed requests are refused when they are made
+    assertThrows(IllegalArgumentException.class,
+        () -> new SchedulingRequest(0, List.of("none", "office", "false"), List.of()));
+    assertThrows(IllegalArgumentException.class,
+        () -> new SchedulingRequest(60, List.of("none"), List.of()));
+  }
+
+  @Test
+  public void batchMostConstrainedFirst() {
+    system.addUser(jonah);
+    system.setUser("jonah");
+    // A 23 hour event only fits on Sunday, so it is placed before the short one
+    List<SchedulingRequest> requests = List.of(
+            new SchedulingRequest(60, List.of("short", "office", "false"), List.of()),
+            new SchedulingRequest(1380, List.of("long", "office", "false"), List.of()));
+    List<SchedulingResult> results = new AnyTimeSchedulingStrategy(system).scheduleAll(requests,
+            SchedulingStrategy.BatchOrder.MOST_CONSTRAINED_FIRST);
+    assertEquals(List.of("long", "Sunday", "0000", "Sunday", "2300", "office", "false",
+            "jonah"), results.get(1).event().eventInfo());
+    assertEquals(List.of("short", "Sunday", "2300", "Monday", "0000", "office", "false",
+            "jonah"), results.get(0).event().eventInfo());
+  }
+
+  @Test
+  public void rankedTimes() {
+    system.addUser(jonah);
+    system.setUser("jonah");
+    List<String> info = List.of("meeting", "office", "false");
+    SchedulingStrategy anyTime = new AnyTimeSchedulingStrategy(system);
+    List<Event> firstThree = anyTime.findTimes(60, List.of(), info).limit(3)
+            .collect(Collectors.toList());
+    assertEquals(List.of("meeting", "Sunday", "0000", "Sunday", "0100", "office", "false",
+            "jonah"), firstThree.get(0).eventInfo());
+    assertEquals(List.of("meeting", "Sunday", "0002", "Sunday", "0102", "office", "false",
+            "jonah"), firstThree.get(2).eventInfo());
+    // Splitting the search across threads keeps the slots in order
+    assertEquals(anyTime.findTimes(60, List.of(), info).map(Event::eventInfo)
+                    .collect(Collectors.toList()),
+            anyTime.findTimes(60, List.of(), info).parallel().map(Event::eventInfo)
+                    .collect(Collectors.toList()));
+
+    // Prefer the latest slots in the week
+    List<Event> latest = anyTime.findBestTimes(60, List.of(), info, 2, start -> start);
+    assertEquals(List.of("meeting", "Saturday", "2359", "Sunday", "0059", "office", "false",
+            "jonah"), latest.get(0).eventInfo());
+    assertEquals(List.of("meeting", "Saturday", "2358", "Sunday", "0058", "office", "false",
+            "jonah"), latest.get(1).eventInfo());
+    // Jonah is busy all of Monday's work hours
+    assertEquals("Tuesday", new WorkHoursSchedulingStrategy(system)
+            .findBestTimes(60, List.of(), info, 1, start -> -start).get(0).eventInfo().get(1));
+  }
+
+  @Test
+  public void quorumTime() {
+    system.addUser(jonah);
+    User david = new User("david");
+    david.addEvent(new Event("sleep", "home", false, LocalTime.of(0, 0), LocalTime.of(8, 0),
+            DayOfWeek.SUNDAY, DayOfWeek.SUNDAY, david, new ArrayList<>()));
+    system.addUser(david);
+    system.addUser(new User("host"));
+    system.setUser("host");
+    List<String> info = List.of("meeting", "office", "false");
+    QuorumSchedulingStrategy quorum = new QuorumSchedulingStrategy(system);
+
+    // Either invitee is enough, so the meeting starts right away without David
+    QuorumSlot slot = quorum.findTime(60, 1, List.of("jonah", "david"), info);
+    assertEquals(List.of("meeting", "Sunday", "0000", "Sunday", "0100", "office", "false",
+            "host"), slot.event().eventInfo());
+    assertEquals(List.of(jonah), slot.event().invitees());
+    assertEquals(List.of("david"), slot.absent());
+
+    // Both are needed, so wait until David wakes up
+    slot = quorum.findTime(60, 2, List.of("jonah", "david"), info);
+    assertEquals(List.of("meeting", "Sunday", "0800", "Sunday", "0900", "office", "false",
+            "host"), slot.event().eventInfo());
+    assertEquals(2, slot.event().invitees().size());
+    assertEquals(List.of(), slot.absent());
+    assertThrows(IllegalArgumentException.class,
+        () -> quorum.findTime(60, 3, List.of("jonah", "david"), info));
+  }
+
+  @Test
+  public void serverServesPlanner() throws IOException {
+    ICentralSystem model = new ConcurrentPlanner();
+    try (PlannerServer server = PlannerServer.start(model, new AnyTimeSchedulingStrategy(model),
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2, 4)) {
+      int port = server.port();
+      assertEquals(201, request(port, "POST", "/users", "{\"id\": \"jonah\"}")[0]);
+      assertEquals(201, request(port, "POST", "/users", "{\"id\": \"teacher lee\"}")[0]);
+      assertEquals(201, request(port, "POST", "/events", "{\"host\": \"jonah\", "
+              + "\"name\": \"Lesson\", \"location\": \"Room\", \"online\": false, "
+              + "\"startDay\": \"Monday\", \"startTime\": \"0900\", "
+              + "\"endDay\": \"Monday\", \"endTime\": \"1000\", "
+              + "\"invitees\": [\"teacher lee\"]}")[0]);
+      assertEquals(List.of("Lesson"), model.snapshot().userSchedule("teacher lee").stream()
+              .map(Object::toString).collect(Collectors.toList()));
+
+      Object[] schedule = request(port, "GET", "/users/teacher%20lee/schedule", null);
+      assertEquals(200, schedule[0]);
+      assertEquals("[{\"name\":\"Lesson\",\"startDay\":\"Monday\",\"startTime\":\"0900\","
+              + "\"endDay\":\"Monday\",\"endTime\":\"1000\",\"location\":\"Room\","
+              + "\"online\":false,\"host\":\"jonah\",\"invitees\":[\"teacher lee\"]}]",
+              schedule[1]);
+      assertTrue(request(port, "GET", "/users/jonah/events?day=monday&time=0930", null)[1]
+              .toString().contains("\"Lesson\""));
+      assertTrue(request(port, "POST", "/strategy/time", "{\"host\": \"teacher lee\", "
+              + "\"duration\": 60, \"invitees\": [\"jonah\"], \"name\": \"Chat\", "
+              + "\"location\": \"Zoom\", \"online\": true}")[1].toString()
+              .contains("\"startDay\":\"Sunday\",\"startTime\":\"0000\""));
+
+      // The second command fails, so the first is undone
+      assertEquals(400, request(port, "POST", "/batch", "[{\"op\": \"remove\", "
+              + "\"event\": \"Lesson\", \"user\": \"jonah\"}, {\"op\": \"remove\", "
+              + "\"event\": \"Missing\", \"user\": \"jonah\"}]")[0]);
+      assertEquals(200, request(port, "GET", "/events/Lesson", null)[0]);
+      assertEquals(404, request(port, "GET", "/events/Missing", null)[0]);
+      assertEquals(400, request(port, "POST", "/users", "{\"id\": ")[0]);
+      assertEquals(405, request(port, "DELETE", "/users", null)[0]);
+    }
+  }
+
+  @Test
+  public void serverAnswersWhenNoTimeIsFound() throws IOException {
+    ICentralSystem model = new ConcurrentPlanner();
+    try (PlannerServer server = PlannerServer.start(model, new WorkHoursSchedulingStrategy(model),
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 4)) {
+      int port = server.port();
+      assertEquals(201, request(port, "POST", "/users", "{\"id\": \"jonah\"}")[0]);
+      // Jonah is busy for the whole work week
+      assertEquals(201, request(port, "POST", "/events", "{\"host\": \"jonah\", "
+              + "\"name\": \"Trip\", \"location\": \"Away\", \"online\": false, "
+              + "\"startDay\": \"Monday\", \"startTime\": \"0800\", "
+              + "\"endDay\": \"Friday\", \"endTime\": \"1800\", \"invitees\": []}")[0]);
+      String find = "{\"host\": \"jonah\", \"duration\": 60, \"invitees\": [], "
+              + "\"name\": \"Chat\", \"location\": \"Zoom\", \"online\": true";
+
+      Object[] time = request(port, "POST", "/strategy/time", find + "}");
+      assertEquals(409, time[0]);
+      assertEquals("{\"error\":\"No time found\"}", time[1]);
+      Object[] times = request(port, "POST", "/strategy/times", find + ", \"count\": 2}");
+      assertEquals(200, times[0]);
+      assertEquals("[]", times[1]);
+    }
+  }
+
+  @Test
+  public void serverRefusesRequestsWhenFull() throws Exception {
+    ICentralSystem model = new ConcurrentPlanner();
+    model.addUser(new User("jonah"));
+    CountDownLatch searching = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    SchedulingStrategy slow = new AnyTimeSchedulingStrategy(model) {
+      @Override
+      public Event findTime(int duration, List<String> users, List<String> eventInfo) {
+        searching.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        return super.findTime(duration, users, eventInfo);
+      }
+    };
+    // One worker and no queue, so a second request while the first runs is refused
+    try (PlannerServer server = PlannerServer.start(model, slow,
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 0)) {
+      int port = server.port();
+      CompletableFuture<Object[]> first = CompletableFuture.supplyAsync(() -> {
+        try {
+          return request(port, "POST", "/strategy/time", "{\"host\": \"jonah\", "
+                  + "\"duration\": 30, \"name\": \"Nap\", \"location\": \"Home\", "
+                  + "\"online\": false}");
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+      searching.await();
+      Object[] refused = request(port, "GET", "/users", null);
+      assertEquals(503, refused[0]);
+      assertEquals("1", refused[2]);
+      release.countDown();
+      assertEquals(200, first.get()[0]);
+      assertEquals(200, request(port, "GET", "/users", null)[0]);
+    }
+  }
+
+  /**
+   * Sends a request to a local server.
+   *
+   * @return the status, the body, and the Retry-After header
+   */
+  private static Object[] request(int port, String method, String path, String body)
+          throws IOException {
+    HttpURLConnection connection = (HttpURLConnection)
+            new URL("http://localhost:" + port + path).openConnection();
+    connection.setRequestMethod(method);
+    if (body != null) {
+      connection.setDoOutput(true);
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    int status = connection.getResponseCode();
+    InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+    String response = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    in.close();
+    return new Object[]{status, response, connection.getHeaderField("Retry-After")};
+  }
 }
@@ -28,6 +28,11 @@ public class MockView implements IMainSystemFrame {
     // Filler
   }
 
+  @Override
+  public void importProgress(int filesDone, int totalFiles) {
+    // Filler
+  }
+
   @Override
   public void errorMessage(String message) {
     // Filler
@@ -3,14 +3,19 @@ package cs3500.model;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
@@ -110,8 +115,56 @@ public class UserEventTests {
             LocalTime.of(9, 0), LocalTime.of(9, 30),
             DayOfWeek.dayOf(2), DayOfWeek.dayOf(2), jonah, invited);
     jonah.addEvent(wakeUp);
+    // The part of the event that wraps to the start of the week overlaps with wake up
+    assertThrows(IllegalArgumentException.class, () -> jonah.addEvent(nextWeek));
+    jonah.removeEvent(wakeUp);
     jonah.addEvent(nextWeek);
     assertThrows(IllegalArgumentException.class, () -> jonah.addEvent(sameWeek));
+    assertEquals(List.of(nextWeek), jonah.checkTime(DayOfWeek.SUNDAY, LocalTime.of(0, 0)));
+    assertEquals(List.of(nextWeek), jonah.checkTime(DayOfWeek.SATURDAY, LocalTime.of(12, 0)));
+    assertNull(jonah.checkTime(DayOfWeek.WEDNESDAY, LocalTime.of(12, 0)));
+  }
+
+  @Test
+  public void multiDayEvents() {
+    Event longEvent = new Event("long", "long", false,
+            LocalTime.of(9, 0), LocalTime.of(10, 0),
+            DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, jonah, invited);
+    jonah.addEvent(wakeUp);
+    assertThrows(IllegalArgumentException.class, () -> jonah.addEvent(longEvent));
+    jonah.removeEvent(wakeUp);
+    jonah.addEvent(longEvent);
+    // Events can be checked at any time between the start and end days
+    assertEquals(List.of(longEvent), jonah.checkTime(DayOfWeek.TUESDAY, LocalTime.of(23, 0)));
+    assertNull(jonah.checkTime(DayOfWeek.WEDNESDAY, LocalTime.of(10, 0)));
+
+    // Moving the event keeps the schedule lookups in sync
+    longEvent.updateStartEnd(LocalTime.of(9, 0), LocalTime.of(10, 0),
+            DayOfWeek.THURSDAY, DayOfWeek.THURSDAY);
+    assertNull(jonah.checkTime(DayOfWeek.TUESDAY, LocalTime.of(23, 0)));
+    assertEquals(List.of(longEvent), jonah.checkTime(DayOfWeek.THURSDAY, LocalTime.of(9, 30)));
+    jonah.addEvent(wakeUp);
+    assertEquals(List.of(longEvent, wakeUp), jonah.userSchedule());
+  }
+
+  @Test
+  public void freeBusy() {
+    User untracked = new User("jonah", false);
+    Event overlapping = new Event("overlap", "bed", false,
+            LocalTime.of(9, 29), LocalTime.of(10, 0),
+            DayOfWeek.TUESDAY, DayOfWeek.TUESDAY, jonah, invited);
+    Event touching = new Event("touching", "bed", false,
+            LocalTime.of(9, 30), LocalTime.of(10, 0),
+            DayOfWeek.TUESDAY, DayOfWeek.TUESDAY, jonah, invited);
+    for (User user : List.of(jonah, untracked)) {
+      assertTrue(user.isFree(overlapping));
+      user.addEvent(wakeUp);
+      assertFalse(user.isFree(overlapping));
+      assertTrue(user.isFree(touching));
+      assertNull(user.checkTime(DayOfWeek.TUESDAY, LocalTime.of(9, 30)));
+      user.removeEvent(wakeUp);
+      assertTrue(user.isFree(overlapping));
+    }
   }
 
   @Test
@@ -219,6 +272,23 @@ public class UserEventTests {
     assertFalse(wakeUp.checkTime(LocalTime.of(6, 0), DayOfWeek.FRIDAY));
   }
 
+  @Test
+  public void minuteOfWeekTimes() {
+    // Tuesday is two days after Sunday 00:00
+    assertEquals(2 * 1440 + 9 * 60, wakeUp.startMinute());
+    assertEquals(2 * 1440 + 9 * 60 + 30, wakeUp.endMinute());
+    assertFalse(wakeUp.endsNextWeek());
+
+    wakeUp.updateStartEnd(LocalTime.of(22, 0), LocalTime.of(1, 0),
+            DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+    assertEquals(6 * 1440 + 22 * 60, wakeUp.startMinute());
+    assertEquals(60, wakeUp.endMinute());
+    assertTrue(wakeUp.endsNextWeek());
+    assertTrue(wakeUp.checkTime(LocalTime.of(23, 0), DayOfWeek.SATURDAY));
+    assertTrue(wakeUp.checkTime(LocalTime.of(0, 30), DayOfWeek.SUNDAY));
+    assertFalse(wakeUp.checkTime(LocalTime.of(1, 0), DayOfWeek.SUNDAY));
+  }
+
   @Test
   public void changeEventInfo() {
     // List of updated event info
@@ -234,6 +304,23 @@ public class UserEventTests {
     assertEquals(eventInfo, wakeUp.eventInfo());
   }
 
+  @Test
+  public void cachedEventInfo() {
+    List<String> info = wakeUp.eventInfo();
+    assertSame(info, wakeUp.eventInfo());
+    assertThrows(UnsupportedOperationException.class, () -> info.set(0, "nap"));
+
+    // Changing the event rebuilds the information
+    wakeUp.updateLocation("couch");
+    assertNotSame(info, wakeUp.eventInfo());
+    assertEquals("couch", wakeUp.eventInfo().get(5));
+    assertEquals("couch", wakeUp.location());
+    assertEquals(DayOfWeek.TUESDAY, wakeUp.startDay());
+    assertEquals(LocalTime.of(9, 30), wakeUp.endTime());
+    assertFalse(wakeUp.isOnline());
+    assertEquals("jonah", wakeUp.hostId());
+  }
+
   @Test
   public void changeInvitees() {
     List<User> invitedUsers = new ArrayList<>();
@@ -247,4 +334,64 @@ public class UserEventTests {
     invitedUsers.remove(david);
     assertEquals(wakeUp.invitees(), invitedUsers);
   }
+
+  @Test
+  public void renamedEventKeepsItsPlace() {
+    NUPlanner planner = new NUPlanner();
+    planner.addUser(jonah);
+    planner.setUser("jonah");
+    planner.createEvent("a", "room", false, LocalTime.of(9, 0), LocalTime.of(10, 0),
+            DayOfWeek.MONDAY, DayOfWeek.MONDAY, jonah, new ArrayList<>());
+    planner.createEvent("b", "room", false, LocalTime.of(9, 0), LocalTime.of(10, 0),
+            DayOfWeek.TUESDAY, DayOfWeek.TUESDAY, jonah, new ArrayList<>());
+    planner.createEvent("c", "room", false, LocalTime.of(9, 0), LocalTime.of(10, 0),
+            DayOfWeek.WEDNESDAY, DayOfWeek.WEDNESDAY, jonah, new ArrayList<>());
+    planner.modifyEvent(planner.findEventByName("b"), Map.of("name", "z", "location", "room",
+            "online", "false", "start-time", "0900", "end-time", "1000", "start", "tuesday",
+            "end", "tuesday", "invited", ""));
+
+    List<String> names = new ArrayList<>();
+    for (Event event : planner.allEvents()) {
+      names.add(event.toString());
+    }
+    assertEquals(List.of("a", "z", "c"), names);
+
+    // A batch that fails puts the events it removed and renamed back in their places
+    assertThrows(IllegalArgumentException.class, () -> planner.applyBatch(List.of(
+            PlannerCommand.remove("a", "jonah"),
+            PlannerCommand.modify("z", Map.of("name", "y", "location", "room",
+                    "online", "false", "start-time", "0900", "end-time", "1000",
+                    "start", "tuesday", "end", "tuesday", "invited", "")),
+            PlannerCommand.remove("missing", "jonah"))));
+    names.clear();
+    for (Event event : planner.allEvents()) {
+      names.add(event.toString());
+    }
+    assertEquals(List.of("a", "z", "c"), names);
+  }
+
+  @Test
+  public void tieredSnapshotKeepsSchedulesPagedOut() throws IOException {
+    TieredPlanner planner = TieredPlanner.open(Files.createTempDirectory("tiered"), 0);
+    planner.addUser(jonah);
+    planner.addUser(david);
+    planner.setUser("jonah");
+    planner.createEvent("lunch", "cafe", false, LocalTime.of(12, 0), LocalTime.of(13, 0),
+            DayOfWeek.FRIDAY, DayOfWeek.FRIDAY, jonah, List.of(david));
+    assertFalse(david.isLoaded());
+
+    PlannerState state = planner.snapshot();
+    assertEquals(List.of("lunch"), List.of(state.userSchedule("david").get(0).toString()));
+    assertEquals(List.of("david"), state.findEventByName("lunch").invitees());
+    // The snapshot read david's schedule, but did not keep it or anything else in memory
+    assertFalse(david.isLoaded());
+    assertNotSame(state, planner.snapshot());
+
+    // A state for one user reads only that user's schedule
+    PlannerState one = planner.snapshot("david");
+    assertEquals(List.of("david"), one.findAllUsers());
+    assertEquals("lunch", one.userSchedule("david").get(0).toString());
+    assertFalse(david.isLoaded());
+    planner.close();
+  }
 }